@@ -0,0 +1,10 @@
+#!/bin/sh
+# Builds like run.sh, then runs the RobotPlayer microbenchmarks (all of them by default).
+#
+#   harness/bench.sh                                   every benchmark, every parameter combination
+#   harness/bench.sh attack isPathClear -enemies 12    some benchmarks, one enemy count
+#   harness/bench.sh -maps 60 -iterations 10 -iter-ms 500
+set -e
+cd "$(dirname "$0")/.."
+. harness/build.sh
+exec java $EXPORTS -cp harness/out/harness waffleharness.MicroBench -bot harness/out/bot "$@"
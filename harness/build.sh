@@ -0,0 +1,22 @@
+#!/bin/sh
+# Compiles the harness and the bot against the stand-in battlecode.common into harness/out.
+# Sourced by run.sh, bench.sh and tournament.sh, from the repository root.  The bot is the waffle/ package.
+EXPORTS="--add-exports java.base/jdk.internal.org.objectweb.asm=ALL-UNNAMED --add-exports java.base/jdk.internal.org.objectweb.asm.tree=ALL-UNNAMED"
+# The profiler is off in the bot we ship.  The harness reads its arrays, so every bot it builds
+# is compiled from a copy with PROFILER_ENABLED turned on, and the build fails if that line is not found.
+# The bot keeps strictfp for the Java 8 engine, which newer compilers warn is redundant.
+compile_bot() { # <directory with the bot's sources> <output directory>
+    rm -rf "$2-src"
+    mkdir -p "$2-src" "$2"
+    cp "$1"/*.java "$2-src"
+    sed -i 's/static final boolean PROFILER_ENABLED = false;/static final boolean PROFILER_ENABLED = true;/' "$2-src/RobotPlayer.java"
+    if ! grep -q 'static final boolean PROFILER_ENABLED = true;' "$2-src/RobotPlayer.java"; then
+        echo "compile_bot: could not turn PROFILER_ENABLED on in $1/RobotPlayer.java" >&2
+        exit 1
+    fi
+    javac -Xlint:all,-strictfp -cp harness/out/harness -d "$2" "$2-src"/*.java
+}
+rm -rf harness/out
+mkdir -p harness/out/harness
+javac -Xlint:all,-serial $EXPORTS -d harness/out/harness $(find harness/src -name '*.java')
+compile_bot waffle harness/out/bot
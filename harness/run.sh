@@ -0,0 +1,11 @@
+#!/bin/sh
+# Builds the offline harness and the bot against the stand-in battlecode.common, then runs the
+# given scenarios (all of them by default).  Run from anywhere; output goes to harness/out.
+#
+#   harness/run.sh                      every scenario
+#   harness/run.sh maze -seed 7         one scenario, another seed
+#   harness/run.sh -rounds 50 -verbose  shorter runs, with the bot's own printing
+set -e
+cd "$(dirname "$0")/.."
+. harness/build.sh
+exec java $EXPORTS -cp harness/out/harness waffleharness.Harness -bot harness/out/bot "$@"
@@ -0,0 +1,43 @@
+package battlecode.common;
+
+/**
+ * Stand-in for the engine's Clock.
+ *
+ * The harness installs a Meter that knows which robot is running.  Instrumented bot code calls
+ * charge() at the start of every basic block, and the simulated RobotController charges its own
+ * per-call costs, so getBytecodeNum() tracks roughly what the engine would report.
+ */
+public final class Clock {
+
+    public interface Meter {
+        int getBytecodeNum();
+        int getBytecodesLeft();
+        void charge(int bytecodes);
+        void yieldTurn();
+    }
+
+    private static Meter meter;
+
+    private Clock() {}
+
+    public static void install(Meter m) {
+        meter = m;
+    }
+
+    public static int getBytecodesLeft() {
+        return meter.getBytecodesLeft();
+    }
+
+    public static int getBytecodeNum() {
+        return meter.getBytecodeNum();
+    }
+
+    public static void yield() {
+        meter.yieldTurn();
+    }
+
+    /** Harness only; the real Clock has no such method. */
+    public static void charge(int bytecodes) {
+        meter.charge(bytecodes);
+    }
+}
@@ -0,0 +1,52 @@
+package battlecode.common;
+
+public enum Direction {
+    NORTH(0, 1),
+    NORTHEAST(1, 1),
+    EAST(1, 0),
+    SOUTHEAST(1, -1),
+    SOUTH(0, -1),
+    SOUTHWEST(-1, -1),
+    WEST(-1, 0),
+    NORTHWEST(-1, 1),
+    CENTER(0, 0);
+
+    private static final Direction[] ALL = {NORTH, NORTHEAST, EAST, SOUTHEAST, SOUTH, SOUTHWEST, WEST, NORTHWEST};
+    private static final Direction[] CARDINAL = {NORTH, EAST, SOUTH, WEST};
+
+    public final int dx;
+    public final int dy;
+
+    Direction(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    public int getDeltaX() {
+        return dx;
+    }
+
+    public int getDeltaY() {
+        return dy;
+    }
+
+    public Direction opposite() {
+        return this == CENTER ? CENTER : ALL[(ordinal() + 4) % 8];
+    }
+
+    public Direction rotateLeft() {
+        return this == CENTER ? CENTER : ALL[(ordinal() + 7) % 8];
+    }
+
+    public Direction rotateRight() {
+        return this == CENTER ? CENTER : ALL[(ordinal() + 1) % 8];
+    }
+
+    public static Direction[] allDirections() {
+        return ALL.clone();
+    }
+
+    public static Direction[] cardinalDirections() {
+        return CARDINAL.clone();
+    }
+}
@@ -0,0 +1,37 @@
+package battlecode.common;
+
+public class FlagInfo {
+
+    private final MapLocation location;
+    private final Team team;
+    private final boolean isPickedUp;
+    private final int id;
+
+    public FlagInfo(MapLocation location, Team team, boolean isPickedUp, int id) {
+        this.location = location;
+        this.team = team;
+        this.isPickedUp = isPickedUp;
+        this.id = id;
+    }
+
+    public MapLocation getLocation() {
+        return location;
+    }
+
+    public Team getTeam() {
+        return team;
+    }
+
+    public boolean isPickedUp() {
+        return isPickedUp;
+    }
+
+    public int getID() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "FlagInfo{" + location + ", " + team + ", pickedUp=" + isPickedUp + ", id=" + id + "}";
+    }
+}
@@ -0,0 +1,15 @@
+package battlecode.common;
+
+public class GameActionException extends Exception {
+
+    private final GameActionExceptionType type;
+
+    public GameActionException(GameActionExceptionType type, String message) {
+        super(message);
+        this.type = type;
+    }
+
+    public GameActionExceptionType getType() {
+        return type;
+    }
+}
@@ -0,0 +1,11 @@
+package battlecode.common;
+
+public enum GameActionExceptionType {
+    CANT_DO_THAT,
+    CANT_MOVE_THERE,
+    CANT_SENSE_THAT,
+    IS_NOT_READY,
+    NOT_ENOUGH_RESOURCE,
+    OUT_OF_RANGE,
+    INTERNAL_ERROR,
+}
@@ -0,0 +1,35 @@
+package battlecode.common;
+
+/** The subset of the engine's GameConstants that the bot and the harness use. */
+public class GameConstants {
+    public static final int MAP_MIN_WIDTH = 30;
+    public static final int MAP_MIN_HEIGHT = 30;
+    public static final int MAP_MAX_WIDTH = 60;
+    public static final int MAP_MAX_HEIGHT = 60;
+    public static final int SHARED_ARRAY_LENGTH = 64;
+    public static final int MAX_SHARED_ARRAY_VALUE = (1 << 16) - 1;
+    public static final int BYTECODE_LIMIT = 25000;
+    public static final int GAME_MAX_NUMBER_OF_ROUNDS = 2000;
+    public static final int SETUP_ROUNDS = 200;
+    public static final int ROBOT_CAPACITY = 50;
+    public static final int NUMBER_FLAGS = 3;
+    public static final int DEFAULT_HEALTH = 1000;
+    public static final int VISION_RADIUS_SQUARED = 20;
+    public static final int ATTACK_RADIUS_SQUARED = 4;
+    public static final int HEAL_RADIUS_SQUARED = 4;
+    public static final int INTERACT_RADIUS_SQUARED = 2;
+    public static final int FLAG_BROADCAST_UPDATE_INTERVAL = 100;
+    public static final int FLAG_BROADCAST_NOISE_RADIUS = 100;
+    public static final int FLAG_DROPPED_RESET_ROUNDS = 4;
+    public static final int COOLDOWN_LIMIT = 10;
+    public static final int COOLDOWNS_PER_TURN = 10;
+    public static final int FILL_COST = 30;
+    public static final int FILL_COOLDOWN = 30;
+    public static final int ATTACK_COOLDOWN = 20;
+    public static final int HEAL_COOLDOWN = 30;
+    public static final int MOVEMENT_COOLDOWN = 10;
+    public static final int FLAG_PICKUP_COOLDOWN = 10;
+    public static final int DEFAULT_ATTACK_DAMAGE = 150;
+    public static final int DEFAULT_HEAL_AMOUNT = 80;
+    public static final int GLOBAL_UPGRADE_ROUNDS = 750;
+}
@@ -0,0 +1,17 @@
+package battlecode.common;
+
+public enum GlobalUpgrade {
+    ATTACK(60, 0, 0),
+    HEALING(0, 50, 0),
+    CAPTURING(0, 0, 8);
+
+    public final int baseAttackChange;
+    public final int baseHealChange;
+    public final int flagReturnDelayChange;
+
+    GlobalUpgrade(int baseAttackChange, int baseHealChange, int flagReturnDelayChange) {
+        this.baseAttackChange = baseAttackChange;
+        this.baseHealChange = baseHealChange;
+        this.flagReturnDelayChange = flagReturnDelayChange;
+    }
+}
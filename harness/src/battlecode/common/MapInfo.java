@@ -0,0 +1,64 @@
+package battlecode.common;
+
+public class MapInfo {
+
+    private final MapLocation loc;
+    private final boolean isWall;
+    private final boolean isWater;
+    private final boolean isDam;
+    private final int spawnZoneTeam;
+    private final TrapType trapType;
+    private final int crumbs;
+    private final Team territory;
+
+    public MapInfo(MapLocation loc, boolean isWall, boolean isWater, boolean isDam, int spawnZoneTeam, TrapType trapType, int crumbs, Team territory) {
+        this.loc = loc;
+        this.isWall = isWall;
+        this.isWater = isWater;
+        this.isDam = isDam;
+        this.spawnZoneTeam = spawnZoneTeam;
+        this.trapType = trapType;
+        this.crumbs = crumbs;
+        this.territory = territory;
+    }
+
+    public MapLocation getMapLocation() {
+        return loc;
+    }
+
+    public boolean isPassable() {
+        return !isWall && !isWater && !isDam;
+    }
+
+    public boolean isWall() {
+        return isWall;
+    }
+
+    public boolean isWater() {
+        return isWater;
+    }
+
+    public boolean isDam() {
+        return isDam;
+    }
+
+    public boolean isSpawnZone() {
+        return spawnZoneTeam != 0;
+    }
+
+    public int getSpawnZoneTeam() {
+        return spawnZoneTeam;
+    }
+
+    public TrapType getTrapType() {
+        return trapType;
+    }
+
+    public int getCrumbs() {
+        return crumbs;
+    }
+
+    public Team getTeamTerritory() {
+        return territory;
+    }
+}
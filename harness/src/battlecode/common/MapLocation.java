@@ -0,0 +1,79 @@
+package battlecode.common;
+
+public final class MapLocation implements Comparable<MapLocation> {
+
+    public final int x;
+    public final int y;
+
+    public MapLocation(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public int distanceSquaredTo(MapLocation location) {
+        final int dx = this.x - location.x;
+        final int dy = this.y - location.y;
+        return dx * dx + dy * dy;
+    }
+
+    public boolean isWithinDistanceSquared(MapLocation location, int distanceSquared) {
+        return this.distanceSquaredTo(location) <= distanceSquared;
+    }
+
+    public boolean isAdjacentTo(MapLocation location) {
+        final int dx = Math.abs(this.x - location.x);
+        final int dy = Math.abs(this.y - location.y);
+        return dx <= 1 && dy <= 1 && (dx != 0 || dy != 0);
+    }
+
+    /** Same rounding as the engine: within 22.5 degrees of an axis counts as that axis. */
+    public Direction directionTo(MapLocation location) {
+        final double dx = location.x - this.x;
+        final double dy = location.y - this.y;
+        if(Math.abs(dx) >= 2.414 * Math.abs(dy)) {
+            return dx > 0 ? Direction.EAST : dx < 0 ? Direction.WEST : Direction.CENTER;
+        } else if(Math.abs(dy) >= 2.414 * Math.abs(dx)) {
+            return dy > 0 ? Direction.NORTH : Direction.SOUTH;
+        } else if(dy > 0) {
+            return dx > 0 ? Direction.NORTHEAST : Direction.NORTHWEST;
+        } else {
+            return dx > 0 ? Direction.SOUTHEAST : Direction.SOUTHWEST;
+        }
+    }
+
+    public MapLocation add(Direction direction) {
+        return new MapLocation(x + direction.dx, y + direction.dy);
+    }
+
+    public MapLocation subtract(Direction direction) {
+        return new MapLocation(x - direction.dx, y - direction.dy);
+    }
+
+    public MapLocation translate(int dx, int dy) {
+        return new MapLocation(x + dx, y + dy);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(!(obj instanceof MapLocation)) {
+            return false;
+        }
+        final MapLocation other = (MapLocation)obj;
+        return x == other.x && y == other.y;
+    }
+
+    @Override
+    public int hashCode() {
+        return 18061 * x + 79301 * y;
+    }
+
+    @Override
+    public int compareTo(MapLocation other) {
+        return x != other.x ? Integer.compare(x, other.x) : Integer.compare(y, other.y);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + ", " + y + ")";
+    }
+}
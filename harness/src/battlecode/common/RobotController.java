@@ -0,0 +1,61 @@
+package battlecode.common;
+
+/** The subset of the engine's RobotController that the bot uses, with the same signatures. */
+public interface RobotController {
+
+    int getRoundNum();
+    int getMapWidth();
+    int getMapHeight();
+    int getID();
+    Team getTeam();
+    MapLocation getLocation();
+    int getHealth();
+    int getCrumbs();
+    boolean hasFlag();
+    boolean isSpawned();
+    GlobalUpgrade[] getGlobalUpgrades(Team team);
+
+    boolean onTheMap(MapLocation loc);
+    boolean canSenseLocation(MapLocation loc);
+    boolean isLocationOccupied(MapLocation loc) throws GameActionException;
+    RobotInfo senseRobotAtLocation(MapLocation loc) throws GameActionException;
+    RobotInfo[] senseNearbyRobots();
+    RobotInfo[] senseNearbyRobots(int radiusSquared) throws GameActionException;
+    RobotInfo[] senseNearbyRobots(int radiusSquared, Team team) throws GameActionException;
+    MapInfo senseMapInfo(MapLocation loc) throws GameActionException;
+    MapInfo[] senseNearbyMapInfos();
+    MapInfo[] senseNearbyMapInfos(int radiusSquared) throws GameActionException;
+    MapInfo[] senseNearbyMapInfos(MapLocation center, int radiusSquared) throws GameActionException;
+    FlagInfo[] senseNearbyFlags(int radiusSquared) throws GameActionException;
+    FlagInfo[] senseNearbyFlags(int radiusSquared, Team team) throws GameActionException;
+    MapLocation[] senseBroadcastFlagLocations();
+    MapLocation[] senseNearbyCrumbs(int radiusSquared) throws GameActionException;
+    MapLocation[] getAllySpawnLocations();
+    MapLocation adjacentLocation(Direction dir);
+
+    boolean isActionReady();
+    boolean isMovementReady();
+    boolean canSpawn(MapLocation loc);
+    void spawn(MapLocation loc) throws GameActionException;
+    boolean canMove(Direction dir);
+    void move(Direction dir) throws GameActionException;
+    boolean canAttack(MapLocation loc);
+    void attack(MapLocation loc) throws GameActionException;
+    boolean canHeal(MapLocation loc);
+    void heal(MapLocation loc) throws GameActionException;
+    boolean canBuild(TrapType trap, MapLocation loc);
+    void build(TrapType trap, MapLocation loc) throws GameActionException;
+    boolean canFill(MapLocation loc);
+    void fill(MapLocation loc) throws GameActionException;
+    boolean canPickupFlag(MapLocation loc);
+    void pickupFlag(MapLocation loc) throws GameActionException;
+    boolean canBuyGlobal(GlobalUpgrade upgrade);
+    void buyGlobal(GlobalUpgrade upgrade) throws GameActionException;
+
+    int readSharedArray(int index) throws GameActionException;
+    boolean canWriteSharedArray(int index, int value);
+    void writeSharedArray(int index, int value) throws GameActionException;
+
+    void setIndicatorString(String string);
+    void setIndicatorDot(MapLocation loc, int red, int green, int blue);
+}
@@ -0,0 +1,49 @@
+package battlecode.common;
+
+public class RobotInfo {
+
+    public final int ID;
+    public final Team team;
+    public final int health;
+    public final MapLocation location;
+    public final boolean hasFlag;
+    public final int attackLevel;
+    public final int healLevel;
+    public final int buildLevel;
+
+    public RobotInfo(int ID, Team team, int health, MapLocation location, boolean hasFlag, int attackLevel, int healLevel, int buildLevel) {
+        this.ID = ID;
+        this.team = team;
+        this.health = health;
+        this.location = location;
+        this.hasFlag = hasFlag;
+        this.attackLevel = attackLevel;
+        this.healLevel = healLevel;
+        this.buildLevel = buildLevel;
+    }
+
+    public int getID() {
+        return ID;
+    }
+
+    public Team getTeam() {
+        return team;
+    }
+
+    public int getHealth() {
+        return health;
+    }
+
+    public MapLocation getLocation() {
+        return location;
+    }
+
+    public boolean hasFlag() {
+        return hasFlag;
+    }
+
+    @Override
+    public String toString() {
+        return "RobotInfo{ID=" + ID + ", team=" + team + ", health=" + health + ", location=" + location + "}";
+    }
+}
@@ -0,0 +1,15 @@
+package battlecode.common;
+
+public enum Team {
+    A,
+    B,
+    NEUTRAL;
+
+    public Team opponent() {
+        return this == A ? B : this == B ? A : NEUTRAL;
+    }
+
+    public boolean isPlayer() {
+        return this != NEUTRAL;
+    }
+}
@@ -0,0 +1,19 @@
+package battlecode.common;
+
+/** Costs and damage are close to the engine's but not guaranteed to match it. */
+public enum TrapType {
+    EXPLOSIVE(250, 750, 5),
+    WATER(100, 0, 5),
+    STUN(100, 0, 5),
+    NONE(0, 0, 0);
+
+    public final int buildCost;
+    public final int enterDamage;
+    public final int cooldown;
+
+    TrapType(int buildCost, int enterDamage, int cooldown) {
+        this.buildCost = buildCost;
+        this.enterDamage = enterDamage;
+        this.cooldown = cooldown;
+    }
+}
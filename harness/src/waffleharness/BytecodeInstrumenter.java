@@ -0,0 +1,103 @@
+package waffleharness;
+
+import jdk.internal.org.objectweb.asm.ClassReader;
+import jdk.internal.org.objectweb.asm.ClassWriter;
+import jdk.internal.org.objectweb.asm.Opcodes;
+import jdk.internal.org.objectweb.asm.tree.AbstractInsnNode;
+import jdk.internal.org.objectweb.asm.tree.ClassNode;
+import jdk.internal.org.objectweb.asm.tree.InsnList;
+import jdk.internal.org.objectweb.asm.tree.LdcInsnNode;
+import jdk.internal.org.objectweb.asm.tree.MethodInsnNode;
+import jdk.internal.org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Rewrites bot classes so that every basic block starts by charging its own instruction count to
+ * Clock.charge.  That is close to how the engine counts bytecodes, minus the engine's special
+ * per-method costs, which the simulated RobotController charges instead.
+ *
+ * Uses the ASM copy that ships inside the JDK, so the harness needs no third party jar; compile and
+ * run it with --add-exports for jdk.internal.org.objectweb.asm and its tree package (see run.sh).
+ */
+final class BytecodeInstrumenter {
+
+    private BytecodeInstrumenter() {}
+
+    static byte[] instrument(byte[] classBytes) {
+        final ClassNode cn = new ClassNode();
+        new ClassReader(classBytes).accept(cn, 0);
+        for(MethodNode mn : cn.methods) {
+            instrumentMethod(mn);
+        }
+        // The inserted code is stack neutral and sits after any frame, so the existing frames stay valid.
+        final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cn.accept(cw);
+        return cw.toByteArray();
+    }
+
+    static boolean isRealInsn(AbstractInsnNode insn) {
+        return insn.getOpcode() >= 0;
+    }
+
+    static boolean endsBlock(AbstractInsnNode insn) {
+        switch(insn.getType()) {
+            case AbstractInsnNode.JUMP_INSN:
+            case AbstractInsnNode.TABLESWITCH_INSN:
+            case AbstractInsnNode.LOOKUPSWITCH_INSN:
+                return true;
+            default:
+                break;
+        }
+        final int op = insn.getOpcode();
+        return (op >= Opcodes.IRETURN && op <= Opcodes.RETURN) || op == Opcodes.ATHROW;
+    }
+
+    static void instrumentMethod(MethodNode mn) {
+        final InsnList insns = mn.instructions;
+        if(insns.size() == 0) {
+            return;
+        }
+        // Walk the method, splitting it into blocks at labels and after control transfers.
+        AbstractInsnNode blockFirstReal = null;
+        int blockLength = 0;
+        boolean isAtBlockStart = true;
+        for(AbstractInsnNode insn = insns.getFirst(); insn != null; insn = insn.getNext()) {
+            if(insn.getType() == AbstractInsnNode.LABEL) {
+                flushBlock(insns, blockFirstReal, blockLength);
+                blockFirstReal = null;
+                blockLength = 0;
+                isAtBlockStart = true;
+                continue;
+            }
+            if(!isRealInsn(insn)) {
+                continue;
+            }
+            if(isAtBlockStart) {
+                blockFirstReal = insn;
+                isAtBlockStart = false;
+            }
+            blockLength++;
+            if(endsBlock(insn)) {
+                flushBlock(insns, blockFirstReal, blockLength);
+                blockFirstReal = null;
+                blockLength = 0;
+                isAtBlockStart = true;
+            }
+        }
+        flushBlock(insns, blockFirstReal, blockLength);
+    }
+
+    static void flushBlock(InsnList insns, AbstractInsnNode blockFirstReal, int blockLength) {
+        if(blockFirstReal == null || blockLength == 0) {
+            return;
+        }
+        // A frame may name the label in front of a NEW as the type of an uninitialized value,
+        // so nothing may be put between them.  Those blocks go uncharged.
+        if(blockFirstReal.getOpcode() == Opcodes.NEW) {
+            return;
+        }
+        final InsnList charge = new InsnList();
+        charge.add(new LdcInsnNode(blockLength));
+        charge.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "battlecode/common/Clock", "charge", "(I)V", false));
+        insns.insertBefore(blockFirstReal, charge);
+    }
+}
@@ -0,0 +1,248 @@
+package waffleharness;
+
+import battlecode.common.Clock;
+import battlecode.common.GameConstants;
+import battlecode.common.Team;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives RobotPlayer through the scripted scenarios and reports how many bytecodes its turns and
+ * phases took.  The numbers are approximate (see BytecodeInstrumenter and SimRobotController), but
+ * they move the same way the engine's numbers do, which is what catching regressions needs.
+ *
+ * Usage: Harness [-bot DIR] [-seed N] [-rounds N] [-verbose] [scenario...]
+ * Exits with status 1 if any robot ran out of bytecodes.
+ */
+public final class Harness {
+
+    static final String BOT_PACKAGE = "waffle";
+
+    private Harness() {}
+
+    static final class Result {
+        long wallNanos = 0;
+        int numTurns = 0;
+        long totalTurnBytecodes = 0;
+        int minTurnBytecodes = Integer.MAX_VALUE;
+        int maxTurnBytecodes = 0;
+        int numOverruns = 0;
+        int numIllegalActions = 0;
+        int numFailedRobots = 0;
+        int numCapturedFlags = 0;
+        String[] phaseNames = null;
+        long[] phaseCalls;
+        long[] phaseTotalBytecodes;
+        int[] phaseMaxBytecodes;
+        long[] phaseOverruns;
+        long[] phaseDeferrals;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path botDir = Paths.get("harness/out/bot");
+        long seed = 1;
+        int roundsOverride = -1;
+        boolean isVerbose = false;
+        final List<Scenarios.Scenario> scenarios = new ArrayList<>();
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-bot": botDir = Paths.get(args[++i]); break;
+                case "-seed": seed = Long.parseLong(args[++i]); break;
+                case "-rounds": roundsOverride = Integer.parseInt(args[++i]); break;
+                case "-verbose": isVerbose = true; break;
+                default:
+                    final Scenarios.Scenario s = Scenarios.find(args[i]);
+                    if(s == null) {
+                        System.err.println("Unknown scenario " + args[i] + ".  Known scenarios:");
+                        for(Scenarios.Scenario known : Scenarios.ALL) {
+                            System.err.println("  " + known.name + ": " + known.description);
+                        }
+                        System.exit(2);
+                    }
+                    scenarios.add(s);
+                    break;
+            }
+        }
+        if(scenarios.isEmpty()) {
+            scenarios.addAll(Scenarios.ALL);
+        }
+
+        final Scheduler scheduler = new Scheduler();
+        Clock.install(scheduler);
+        int totalOverruns = 0;
+        for(Scenarios.Scenario s : scenarios) {
+            final int numRounds = roundsOverride > 0 ? roundsOverride : s.numRounds;
+            final Result result = runScenario(scheduler, s, botDir, seed, numRounds, isVerbose);
+            report(s, numRounds, result);
+            totalOverruns += result.numOverruns;
+        }
+        System.exit(totalOverruns == 0 ? 0 : 1);
+    }
+
+    static Result runScenario(
+        Scheduler scheduler, Scenarios.Scenario scenario, Path botDir, long seed, int numRounds, boolean isVerbose
+    ) throws Exception {
+        final SimWorld world = scenario.build(seed);
+        final List<RobotRunner> runners = new ArrayList<>();
+        for(SimWorld.SimRobot robot : world.robots) {
+            if(robot.isBot) {
+                runners.add(new RobotRunner(world, robot, loadPlayerClass(botDir, true)));
+            }
+        }
+
+        final PrintStream realOut = System.out;
+        final PrintStream realErr = System.err;
+        if(!isVerbose) {
+            final PrintStream sink = new PrintStream(OutputStream.nullOutputStream());
+            System.setOut(sink);
+            System.setErr(sink);
+        }
+        final long start = System.nanoTime();
+        try {
+            for(int round = 0; round < numRounds; round++) {
+                world.startRound();
+                int runnerIdx = 0;
+                for(SimWorld.SimRobot robot : new ArrayList<>(world.robots)) {
+                    if(robot.isBot) {
+                        scheduler.runTurn(runners.get(runnerIdx++));
+                    } else {
+                        runDummyTurn(world, robot);
+                    }
+                }
+                world.endRound();
+            }
+        } finally {
+            System.setOut(realOut);
+            System.setErr(realErr);
+        }
+
+        final Result result = new Result();
+        result.wallNanos = System.nanoTime() - start;
+        result.numCapturedFlags = world.numCapturedFlags(Team.A);
+        for(RobotRunner r : runners) {
+            result.numTurns += r.numTurns;
+            result.totalTurnBytecodes += r.totalTurnBytecodes;
+            result.minTurnBytecodes = Math.min(result.minTurnBytecodes, r.minTurnBytecodes);
+            result.maxTurnBytecodes = Math.max(result.maxTurnBytecodes, r.maxTurnBytecodes);
+            result.numOverruns += r.numOverruns;
+            result.numIllegalActions += r.rc.numIllegalActions;
+            if(r.failure != null) {
+                result.numFailedRobots++;
+                realErr.println("robot " + r.robot.id + " died: " + r.failure);
+            }
+            addProfile(result, r.playerClass);
+        }
+        return result;
+    }
+
+    /** Loads a fresh copy of RobotPlayer, with its profiler dumps turned off. */
+    static Class<?> loadPlayerClass(Path botDir, boolean isInstrumented) throws ReflectiveOperationException {
+        final ClassLoader loader = new RobotClassLoader(botDir, BOT_PACKAGE, isInstrumented, Harness.class.getClassLoader());
+        final Class<?> playerClass = Class.forName(BOT_PACKAGE + ".RobotPlayer", false, loader);
+        setStaticIntIfPresent(playerClass, "profilerDumpInterval", Integer.MAX_VALUE);
+        return playerClass;
+    }
+
+    /** Dummies hit the weakest enemy in range and otherwise stand still. */
+    static void runDummyTurn(SimWorld world, SimWorld.SimRobot dummy) {
+        if(dummy.loc == null || dummy.actionCooldown >= GameConstants.COOLDOWN_LIMIT) {
+            return;
+        }
+        SimWorld.SimRobot target = null;
+        for(SimWorld.SimRobot other : world.robots) {
+            if(other.team != dummy.team
+                && other.loc != null
+                && dummy.loc.distanceSquaredTo(other.loc) <= GameConstants.ATTACK_RADIUS_SQUARED
+                && (target == null || other.health < target.health)
+            ) {
+                target = other;
+            }
+        }
+        if(target != null) {
+            dummy.actionCooldown += GameConstants.ATTACK_COOLDOWN;
+            world.damage(target, GameConstants.DEFAULT_ATTACK_DAMAGE);
+        }
+    }
+
+    static void setStaticInt(Class<?> c, String name, int value) throws ReflectiveOperationException {
+        final Field f = c.getDeclaredField(name);
+        f.setAccessible(true);
+        f.setInt(null, value);
+    }
+
+    /** Like setStaticInt, for fields an older revision of the bot may not have. */
+    static void setStaticIntIfPresent(Class<?> c, String name, int value) throws ReflectiveOperationException {
+        for(Field f : c.getDeclaredFields()) {
+            if(f.getName().equals(name)) {
+                setStaticInt(c, name, value);
+                return;
+            }
+        }
+    }
+
+    static Object getStatic(Class<?> c, String name) throws ReflectiveOperationException {
+        final Field f = c.getDeclaredField(name);
+        f.setAccessible(true);
+        return f.get(null);
+    }
+
+    /** Sums the bot's own per-phase profiler arrays over all robots. */
+    static void addProfile(Result result, Class<?> playerClass) throws ReflectiveOperationException {
+        final String[] names = (String[])getStatic(playerClass, "PHASE_NAMES");
+        final int[] calls = (int[])getStatic(playerClass, "phaseCalls");
+        final int[] total = (int[])getStatic(playerClass, "phaseTotalBytecodes");
+        final int[] max = (int[])getStatic(playerClass, "phaseMaxBytecodes");
+        final int[] overruns = (int[])getStatic(playerClass, "phaseOverruns");
+        final int[] deferrals = (int[])getStatic(playerClass, "phaseDeferrals");
+        if(result.phaseNames == null) {
+            result.phaseNames = names;
+            result.phaseCalls = new long[names.length];
+            result.phaseTotalBytecodes = new long[names.length];
+            result.phaseMaxBytecodes = new int[names.length];
+            result.phaseOverruns = new long[names.length];
+            result.phaseDeferrals = new long[names.length];
+        }
+        for(int p = 0; p < names.length; p++) {
+            result.phaseCalls[p] += calls[p];
+            result.phaseTotalBytecodes[p] += total[p];
+            result.phaseMaxBytecodes[p] = Math.max(result.phaseMaxBytecodes[p], max[p]);
+            result.phaseOverruns[p] += overruns[p];
+            result.phaseDeferrals[p] += deferrals[p];
+        }
+    }
+
+    static void report(Scenarios.Scenario s, int numRounds, Result r) {
+        final double seconds = r.wallNanos / 1e9;
+        System.out.printf("== %s (%d rounds): %s%n", s.name, numRounds, s.description);
+        System.out.printf(
+            "turns %d in %.2fs (%.0f turns/s)  bytecodes/turn min %d avg %d max %d  overruns %d%n",
+            r.numTurns, seconds, r.numTurns / Math.max(seconds, 1e-9),
+            r.numTurns == 0 ? 0 : r.minTurnBytecodes,
+            r.numTurns == 0 ? 0 : r.totalTurnBytecodes / r.numTurns,
+            r.maxTurnBytecodes, r.numOverruns
+        );
+        System.out.printf(
+            "illegal actions %d  failed robots %d  flags captured %d%n",
+            r.numIllegalActions, r.numFailedRobots, r.numCapturedFlags
+        );
+        if(r.phaseNames != null) {
+            System.out.printf("  %-9s %8s %8s %8s %6s %6s%n", "phase", "calls", "avg", "max", "ovr", "def");
+            for(int p = 0; p < r.phaseNames.length; p++) {
+                if(r.phaseCalls[p] != 0 || r.phaseDeferrals[p] != 0) {
+                    System.out.printf(
+                        "  %-9s %8d %8d %8d %6d %6d%n",
+                        r.phaseNames[p], r.phaseCalls[p],
+                        r.phaseCalls[p] == 0 ? 0 : r.phaseTotalBytecodes[p] / r.phaseCalls[p],
+                        r.phaseMaxBytecodes[p], r.phaseOverruns[p], r.phaseDeferrals[p]
+                    );
+                }
+            }
+        }
+    }
+}
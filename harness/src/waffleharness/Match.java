@@ -0,0 +1,130 @@
+package waffleharness;
+
+import battlecode.common.Clock;
+import battlecode.common.Team;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays one bot against another bot on a MatchMaps map and prints a single RESULT line.
+ * The Tournament runs these as separate processes, since all robots in one JVM share one Clock.
+ *
+ * Usage: Match -a DIR -b DIR [-seed N] [-bots N] [-rounds N]
+ *
+ * A team wins by capturing all three enemy flags; when the rounds run out, the team with more
+ * captures wins and equal captures are a draw.  The engine breaks those ties on other things, which
+ * this model does not track.
+ */
+public final class Match {
+
+    private Match() {}
+
+    static final class SideStats {
+        int numTurns = 0;
+        long totalTurnBytecodes = 0;
+        int maxTurnBytecodes = 0;
+        int numOverruns = 0;
+        int numFailedRobots = 0;
+        void add(RobotRunner r) {
+            numTurns += r.numTurns;
+            totalTurnBytecodes += r.totalTurnBytecodes;
+            maxTurnBytecodes = Math.max(maxTurnBytecodes, r.maxTurnBytecodes);
+            numOverruns += r.numOverruns;
+            if(r.failure != null) {
+                numFailedRobots++;
+            }
+        }
+        long avgTurnBytecodes() {
+            return numTurns == 0 ? 0 : totalTurnBytecodes / numTurns;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dirA = null;
+        Path dirB = null;
+        long seed = 1;
+        int botsPerTeam = 20;
+        int maxRounds = 1000;
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-a": dirA = Paths.get(args[++i]); break;
+                case "-b": dirB = Paths.get(args[++i]); break;
+                case "-seed": seed = Long.parseLong(args[++i]); break;
+                case "-bots": botsPerTeam = Integer.parseInt(args[++i]); break;
+                case "-rounds": maxRounds = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Unknown argument " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if(dirA == null || dirB == null) {
+            System.err.println("Usage: Match -a DIR -b DIR [-seed N] [-bots N] [-rounds N]");
+            System.exit(2);
+        }
+
+        final Scheduler scheduler = new Scheduler();
+        Clock.install(scheduler);
+        final SimWorld world = MatchMaps.build(seed);
+        final List<RobotRunner> runners = new ArrayList<>();
+        for(int i = 0; i < botsPerTeam; i++) {
+            // Interleaved, so that neither team always moves first.
+            final SimWorld.SimRobot a = world.addBot(Team.A);
+            runners.add(new RobotRunner(world, a, Harness.loadPlayerClass(dirA, true)));
+            final SimWorld.SimRobot b = world.addBot(Team.B);
+            runners.add(new RobotRunner(world, b, Harness.loadPlayerClass(dirB, true)));
+        }
+
+        final PrintStream realOut = System.out;
+        final PrintStream sink = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(sink);
+        System.setErr(sink);
+        String winner = "DRAW";
+        int lastRound = world.roundNum;
+        try {
+            for(int round = 0; round < maxRounds; round++) {
+                world.startRound();
+                for(RobotRunner r : runners) {
+                    scheduler.runTurn(r);
+                }
+                lastRound = world.roundNum;
+                world.endRound();
+                if(world.numCapturedFlags(Team.A) == world.flags.size() / 2) {
+                    winner = "A";
+                    break;
+                }
+                if(world.numCapturedFlags(Team.B) == world.flags.size() / 2) {
+                    winner = "B";
+                    break;
+                }
+            }
+        } finally {
+            System.setOut(realOut);
+        }
+        final int capturesA = world.numCapturedFlags(Team.A);
+        final int capturesB = world.numCapturedFlags(Team.B);
+        if(winner.equals("DRAW") && capturesA != capturesB) {
+            winner = capturesA > capturesB ? "A" : "B";
+        }
+
+        final SideStats statsA = new SideStats();
+        final SideStats statsB = new SideStats();
+        for(RobotRunner r : runners) {
+            (r.robot.team == Team.A ? statsA : statsB).add(r);
+        }
+        realOut.printf(
+            "RESULT winner=%s rounds=%d capturesA=%d capturesB=%d"
+                + " avgBytecodesA=%d maxBytecodesA=%d overrunsA=%d failedA=%d"
+                + " avgBytecodesB=%d maxBytecodesB=%d overrunsB=%d failedB=%d%n",
+            winner, lastRound, capturesA, capturesB,
+            statsA.avgTurnBytecodes(), statsA.maxTurnBytecodes, statsA.numOverruns, statsA.numFailedRobots,
+            statsB.avgTurnBytecodes(), statsB.maxTurnBytecodes, statsB.numOverruns, statsB.numFailedRobots
+        );
+        realOut.flush();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,139 @@
+package waffleharness;
+
+import battlecode.common.MapLocation;
+import battlecode.common.Team;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+/**
+ * Seeded, rotationally symmetric maps for bot against bot matches.  Team B gets the mirror image
+ * of team A's half, so neither side is favoured and a map can be replayed with sides swapped.
+ */
+final class MatchMaps {
+
+    private MatchMaps() {}
+
+    static final int MIN_SIZE = 30;
+    static final int MAX_SIZE = 45;
+    static final int MAX_ATTEMPTS = 20;
+
+    static SimWorld build(long seed) {
+        final Random rng = new Random(seed);
+        final int w = MIN_SIZE + rng.nextInt(MAX_SIZE - MIN_SIZE + 1);
+        final int h = MIN_SIZE + rng.nextInt(MAX_SIZE - MIN_SIZE + 1);
+        for(int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            final SimWorld world = tryBuild(w, h, seed, rng, attempt < MAX_ATTEMPTS - 1);
+            if(world != null) {
+                return world;
+            }
+        }
+        throw new IllegalStateException("no connected map for seed " + seed);
+    }
+
+    static void setSymmetric(SimWorld world, int x, int y, int type) {
+        world.setTerrain(x, y, type);
+        world.setTerrain(world.width - 1 - x, world.height - 1 - y, type);
+    }
+
+    static SimWorld tryBuild(int w, int h, long seed, Random rng, boolean hasWalls) {
+        final SimWorld world = new SimWorld(w, h, seed);
+        if(hasWalls) {
+            final int numBlobs = (w * h) / 60;
+            for(int b = 0; b < numBlobs; b++) {
+                final int cx = rng.nextInt(w);
+                final int cy = rng.nextInt(h);
+                final int r = 1 + rng.nextInt(2);
+                final int type = rng.nextInt(4) == 0 ? SimWorld.WATER : SimWorld.WALL;
+                for(int dx = -r; dx <= r; dx++) {
+                    for(int dy = -r; dy <= r; dy++) {
+                        final int x = cx + dx;
+                        final int y = cy + dy;
+                        if(x >= 0 && y >= 0 && x < w && y < h && dx * dx + dy * dy <= r * r) {
+                            setSymmetric(world, x, y, type);
+                        }
+                    }
+                }
+            }
+        }
+        // Dams down the middle keep the teams apart until setup ends.
+        for(int y = 0; y < h; y++) {
+            for(int x = (w - 1) / 2; x <= w / 2; x++) {
+                if(world.terrain[x][y] == SimWorld.LAND) {
+                    setSymmetric(world, x, y, SimWorld.DAM);
+                }
+            }
+        }
+        // Three spawn zones in team A's third of the map, a flag on each, mirrored for team B.
+        final int[][] zones = new int[3][];
+        int numZones = 0;
+        int numTries = 0;
+        while(numZones < 3 && numTries < 1000) {
+            numTries++;
+            final int x = 2 + rng.nextInt(Math.max(1, w / 3 - 3));
+            final int y = 2 + rng.nextInt(h - 4);
+            boolean isFarEnough = true;
+            for(int k = 0; k < numZones; k++) {
+                final int dx = zones[k][0] - x;
+                final int dy = zones[k][1] - y;
+                if(dx * dx + dy * dy < 36) {
+                    isFarEnough = false;
+                }
+            }
+            if(isFarEnough) {
+                zones[numZones++] = new int[]{x, y};
+            }
+        }
+        if(numZones < 3) {
+            return null;
+        }
+        for(int[] z : zones) {
+            world.addSpawnZone(Team.A, z[0], z[1]);
+            world.addSpawnZone(Team.B, w - 1 - z[0], h - 1 - z[1]);
+        }
+        for(int[] z : zones) {
+            world.addFlag(Team.A, z[0], z[1]);
+        }
+        for(int[] z : zones) {
+            world.addFlag(Team.B, w - 1 - z[0], h - 1 - z[1]);
+        }
+        for(int x = 0; x < w; x++) {
+            for(int y = 0; y < h; y++) {
+                if(x * h + y < (w * h) / 2 && world.terrain[x][y] == SimWorld.LAND && rng.nextInt(50) == 0) {
+                    world.crumbs[x][y] = 20;
+                    world.crumbs[w - 1 - x][h - 1 - y] = 20;
+                }
+            }
+        }
+        return isEveryZoneReachable(world, zones) ? world : null;
+    }
+
+    /** Whether every spawn zone can reach every other one once the dams are down. */
+    static boolean isEveryZoneReachable(SimWorld world, int[][] zones) {
+        final boolean[][] seen = new boolean[world.width][world.height];
+        final ArrayDeque<MapLocation> queue = new ArrayDeque<>();
+        seen[zones[0][0]][zones[0][1]] = true;
+        queue.add(new MapLocation(zones[0][0], zones[0][1]));
+        while(!queue.isEmpty()) {
+            final MapLocation ml = queue.poll();
+            for(int dx = -1; dx <= 1; dx++) {
+                for(int dy = -1; dy <= 1; dy++) {
+                    final int x = ml.x + dx;
+                    final int y = ml.y + dy;
+                    if(x >= 0 && y >= 0 && x < world.width && y < world.height && !seen[x][y]
+                        && world.terrain[x][y] != SimWorld.WALL
+                    ) {
+                        seen[x][y] = true;
+                        queue.add(new MapLocation(x, y));
+                    }
+                }
+            }
+        }
+        for(int[] z : zones) {
+            if(!seen[z[0]][z[1]] || !seen[world.width - 1 - z[0]][world.height - 1 - z[1]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,379 @@
+package waffleharness;
+
+import battlecode.common.Clock;
+import battlecode.common.GameConstants;
+import battlecode.common.MapLocation;
+import battlecode.common.RobotController;
+import battlecode.common.Team;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Microbenchmarks for single RobotPlayer decision routines, run against canned states.
+ *
+ * For every combination of enemy count and map size, a world is built and one robot is run for a
+ * couple of turns so that its statics hold a realistic state.  Its controller is then frozen and the
+ * routine is called over and over from that state.  Each routine is reported three ways: wall clock
+ * time and allocated bytes per call, both on an uninstrumented copy of the bot, and bytecodes per
+ * call on an instrumented copy.
+ *
+ * Usage: MicroBench [-bot DIR] [-seed N] [-enemies 2,6,12] [-maps 30,60] [-iterations N] [-iter-ms N] [bench...]
+ */
+public final class MicroBench {
+
+    private MicroBench() {}
+
+    interface ArgsFactory {
+        Object[] create(SimRobotController rc, SimWorld world);
+    }
+
+    static final class Bench {
+        final String name;
+        final String methodName;
+        final Class<?>[] parameterTypes;
+        final ArgsFactory argsFactory;
+        final String fieldToSetBeforeEachCall; // a static boolean to set to true, or null
+        Bench(String name, String methodName, Class<?>[] parameterTypes, ArgsFactory argsFactory, String fieldToSetBeforeEachCall) {
+            this.name = name;
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+            this.argsFactory = argsFactory;
+            this.fieldToSetBeforeEachCall = fieldToSetBeforeEachCall;
+        }
+    }
+
+    static final List<Bench> ALL = new ArrayList<>();
+    static {
+        final Class<?> rcType = RobotController.class;
+        ALL.add(new Bench("updateData", "updateData",
+            new Class<?>[]{rcType},
+            (rc, world) -> new Object[]{rc}, null));
+        ALL.add(new Bench("attack", "attack",
+            new Class<?>[]{rcType},
+            (rc, world) -> new Object[]{rc}, null));
+        ALL.add(new Bench("pickCombatMoveDir", "pickCombatMoveDir",
+            new Class<?>[]{rcType, MapLocation.class},
+            (rc, world) -> new Object[]{rc, nearestEnemyLoc(rc, world)}, null));
+        ALL.add(new Bench("buildCombatTraps", "buildCombatTraps",
+            new Class<?>[]{rcType},
+            (rc, world) -> new Object[]{rc}, null));
+        ALL.add(new Bench("isPathClear", "isPathClear",
+            new Class<?>[]{rcType, MapLocation.class, boolean.class, boolean.class},
+            (rc, world) -> new Object[]{rc, farthestEnemyLoc(rc, world), false, false}, null));
+        ALL.add(new Bench("hybridMove", "hybridMove",
+            new Class<?>[]{rcType, MapLocation.class},
+            (rc, world) -> new Object[]{rc, new MapLocation(world.width - 3, 2)}, null));
+        ALL.add(new Bench("synchronizeFlagMemory", "synchronizeFlagMemoryWithSharedArray",
+            new Class<?>[]{rcType},
+            (rc, world) -> new Object[]{rc}, "hasFlagMemoryChangedSinceSync"));
+    }
+
+    static MapLocation nearestEnemyLoc(SimRobotController rc, SimWorld world) {
+        MapLocation nearest = null;
+        for(SimWorld.SimRobot r : world.robots) {
+            if(r.team != rc.self.team && r.loc != null
+                && (nearest == null || rc.self.loc.distanceSquaredTo(r.loc) < rc.self.loc.distanceSquaredTo(nearest))
+            ) {
+                nearest = r.loc;
+            }
+        }
+        return nearest;
+    }
+
+    static MapLocation farthestEnemyLoc(SimRobotController rc, SimWorld world) {
+        MapLocation farthest = rc.self.loc;
+        for(SimWorld.SimRobot r : world.robots) {
+            if(r.team != rc.self.team && r.loc != null
+                && rc.self.loc.distanceSquaredTo(r.loc) <= GameConstants.VISION_RADIUS_SQUARED
+                && rc.self.loc.distanceSquaredTo(r.loc) > rc.self.loc.distanceSquaredTo(farthest)
+            ) {
+                farthest = r.loc;
+            }
+        }
+        return farthest;
+    }
+
+    /** A meter with no limit, for calling routines outside of a turn. */
+    static final class BenchMeter implements Clock.Meter {
+        long used = 0;
+        @Override public int getBytecodeNum() { return (int)Math.min(used, Integer.MAX_VALUE); }
+        @Override public int getBytecodesLeft() { return GameConstants.BYTECODE_LIMIT - getBytecodeNum(); }
+        @Override public void charge(int bytecodes) { used += bytecodes; }
+        @Override public void yieldTurn() { throw new IllegalStateException("yield inside a benchmarked routine"); }
+    }
+
+    /**
+     * Open map with scattered walls and water, our spawn zone in the middle, the enemies spread
+     * around it inside vision range, a few friends and an enemy flag in view.
+     */
+    static SimWorld buildWorld(int mapSize, int numEnemies, long seed) {
+        final SimWorld world = new SimWorld(mapSize, mapSize, seed);
+        final Random rng = new Random(seed);
+        final int c = mapSize / 2;
+        for(int x = 0; x < mapSize; x++) {
+            for(int y = 0; y < mapSize; y++) {
+                final int r = rng.nextInt(100);
+                if(Math.abs(x - c) <= 3 && Math.abs(y - c) <= 3) {
+                    continue;
+                }
+                if(r < 8) {
+                    world.setTerrain(x, y, SimWorld.WALL);
+                } else if(r < 12) {
+                    world.setTerrain(x, y, SimWorld.WATER);
+                } else if(r == 99) {
+                    world.crumbs[x][y] = 30;
+                }
+            }
+        }
+        world.addSpawnZone(Team.A, c, c);
+        world.addSpawnZone(Team.B, mapSize - 3, mapSize - 3);
+        world.addFlag(Team.A, c - 2, c + 2);
+        world.addFlag(Team.A, c + 2, c + 2);
+        world.addFlag(Team.A, c - 2, c - 2);
+        world.addFlag(Team.B, c + 3, c - 2);
+        world.addFlag(Team.B, mapSize - 2, mapSize - 5);
+        world.addFlag(Team.B, mapSize - 5, mapSize - 2);
+        final List<MapLocation> candidates = new ArrayList<>();
+        for(int dx = -4; dx <= 4; dx++) {
+            for(int dy = -4; dy <= 4; dy++) {
+                final int d = dx * dx + dy * dy;
+                if(d >= 4 && d <= 16) {
+                    candidates.add(new MapLocation(c + dx, c + dy));
+                }
+            }
+        }
+        Collections.shuffle(candidates, rng);
+        int numPlaced = 0;
+        for(MapLocation ml : candidates) {
+            if(numPlaced < numEnemies && world.robotAt(ml) == null && world.spawnZoneTeam[ml.x][ml.y] == 0) {
+                world.addDummy(Team.B, ml.x, ml.y, true);
+                numPlaced++;
+            }
+        }
+        final int[][] friends = {{c - 1, c - 2}, {c + 1, c + 2}, {c - 2, c}};
+        for(int[] f : friends) {
+            if(world.robotAt(new MapLocation(f[0], f[1])) == null) {
+                world.addDummy(Team.A, f[0], f[1], true);
+            }
+        }
+        world.teamCrumbs[SimWorld.teamIndex(Team.A)] = 2000;
+        world.roundNum = GameConstants.SETUP_ROUNDS + 5;
+        return world;
+    }
+
+    static final int WARMUP_ROUNDS = 2;
+
+    /** A robot that has played a couple of turns and is now frozen, with its routine ready to call. */
+    static final class Subject {
+        final SimWorld world;
+        final RobotRunner runner;
+        final MethodHandle call; // (Object[])void
+        final Object[] args;
+        final Field fieldToSet;
+        Subject(Path botDir, boolean isInstrumented, Bench bench, int mapSize, int numEnemies, long seed) throws Throwable {
+            world = buildWorld(mapSize, numEnemies, seed);
+            SimWorld.SimRobot bot = world.addBot(Team.A);
+            final Scheduler scheduler = new Scheduler();
+            Clock.install(scheduler);
+            runner = new RobotRunner(world, bot, Harness.loadPlayerClass(botDir, isInstrumented));
+            final PrintStream[] saved = silence();
+            try {
+                for(int round = 0; round < WARMUP_ROUNDS; round++) {
+                    world.startRound();
+                    scheduler.runTurn(runner);
+                    world.endRound();
+                }
+            } finally {
+                System.setOut(saved[0]);
+                System.setErr(saved[1]);
+            }
+            if(bot.loc == null) {
+                throw new IllegalStateException("the robot did not spawn during warm up");
+            }
+            runner.rc.isFrozen = true;
+            final Method m = runner.playerClass.getDeclaredMethod(bench.methodName, bench.parameterTypes);
+            m.setAccessible(true);
+            final int n = bench.parameterTypes.length;
+            call = MethodHandles.lookup().unreflect(m)
+                .asType(MethodType.genericMethodType(n).changeReturnType(void.class))
+                .asSpreader(Object[].class, n);
+            args = bench.argsFactory.create(runner.rc, world);
+            if(bench.fieldToSetBeforeEachCall != null) {
+                fieldToSet = runner.playerClass.getDeclaredField(bench.fieldToSetBeforeEachCall);
+                fieldToSet.setAccessible(true);
+            } else {
+                fieldToSet = null;
+            }
+        }
+        void callOnce() throws Throwable {
+            runner.rc.self.actionCooldown = 0;
+            runner.rc.self.movementCooldown = 0;
+            if(fieldToSet != null) {
+                fieldToSet.setBoolean(null, true);
+            }
+            call.invokeExact(args);
+        }
+    }
+
+    static PrintStream[] silence() {
+        final PrintStream[] saved = {System.out, System.err};
+        final PrintStream sink = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(sink);
+        System.setErr(sink);
+        return saved;
+    }
+
+    static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean())
+            .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    static final class Measurement {
+        double nanosPerOp;
+        double nanosPerOpError;
+        double bytesPerOp;
+        double bytecodesPerOp;
+    }
+
+    static Measurement measure(
+        Path botDir, Bench bench, int mapSize, int numEnemies, long seed, int iterations, int iterMillis
+    ) throws Throwable {
+        final Measurement result = new Measurement();
+
+        // Bytecodes, on the instrumented copy.  The first call may still be settling into the canned state.
+        final Subject counted = new Subject(botDir, true, bench, mapSize, numEnemies, seed);
+        final BenchMeter meter = new BenchMeter();
+        Clock.install(meter);
+        final PrintStream[] saved = silence();
+        try {
+            counted.callOnce();
+            final int numCountedCalls = 20;
+            meter.used = 0;
+            for(int k = 0; k < numCountedCalls; k++) {
+                counted.callOnce();
+            }
+            result.bytecodesPerOp = (double)meter.used / numCountedCalls;
+
+            // Time and allocation, on the plain copy.
+            final Subject timed = new Subject(botDir, false, bench, mapSize, numEnemies, seed);
+            Clock.install(new BenchMeter());
+            runFor(timed, iterMillis); // warm up the JIT
+            final double[] nanosPerOp = new double[iterations];
+            long totalOps = 0;
+            long totalBytes = 0;
+            for(int i = 0; i < iterations; i++) {
+                final long bytesBefore = allocatedBytes();
+                final long start = System.nanoTime();
+                final long ops = runFor(timed, iterMillis);
+                final long elapsed = System.nanoTime() - start;
+                totalBytes += allocatedBytes() - bytesBefore;
+                totalOps += ops;
+                nanosPerOp[i] = (double)elapsed / ops;
+            }
+            double mean = 0;
+            for(double v : nanosPerOp) {
+                mean += v;
+            }
+            mean /= iterations;
+            double variance = 0;
+            for(double v : nanosPerOp) {
+                variance += (v - mean) * (v - mean);
+            }
+            result.nanosPerOp = mean;
+            result.nanosPerOpError = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+            result.bytesPerOp = (double)totalBytes / totalOps;
+        } finally {
+            System.setOut(saved[0]);
+            System.setErr(saved[1]);
+        }
+        return result;
+    }
+
+    static long runFor(Subject subject, int millis) throws Throwable {
+        final long deadline = System.nanoTime() + millis * 1_000_000L;
+        long ops = 0;
+        do {
+            for(int k = 0; k < 64; k++) {
+                subject.callOnce();
+            }
+            ops += 64;
+        } while(System.nanoTime() < deadline);
+        return ops;
+    }
+
+    static int[] parseInts(String csv) {
+        final String[] parts = csv.split(",");
+        final int[] values = new int[parts.length];
+        for(int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws Throwable {
+        Path botDir = Paths.get("harness/out/bot");
+        long seed = 1;
+        int[] enemyCounts = {2, 6, 12};
+        int[] mapSizes = {30, 60};
+        int iterations = 5;
+        int iterMillis = 200;
+        final List<Bench> benches = new ArrayList<>();
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-bot": botDir = Paths.get(args[++i]); break;
+                case "-seed": seed = Long.parseLong(args[++i]); break;
+                case "-enemies": enemyCounts = parseInts(args[++i]); break;
+                case "-maps": mapSizes = parseInts(args[++i]); break;
+                case "-iterations": iterations = Integer.parseInt(args[++i]); break;
+                case "-iter-ms": iterMillis = Integer.parseInt(args[++i]); break;
+                default:
+                    Bench found = null;
+                    for(Bench b : ALL) {
+                        if(b.name.equals(args[i])) {
+                            found = b;
+                        }
+                    }
+                    if(found == null) {
+                        System.err.println("Unknown benchmark " + args[i] + ".  Known benchmarks:");
+                        for(Bench b : ALL) {
+                            System.err.println("  " + b.name);
+                        }
+                        System.exit(2);
+                    }
+                    benches.add(found);
+                    break;
+            }
+        }
+        if(benches.isEmpty()) {
+            benches.addAll(ALL);
+        }
+
+        System.out.printf("%-26s %7s %4s %12s %9s %9s %10s%n", "benchmark", "enemies", "map", "ns/op", "+-", "B/op", "bytecodes");
+        for(Bench bench : benches) {
+            for(int mapSize : mapSizes) {
+                for(int numEnemies : enemyCounts) {
+                    final Measurement m = measure(botDir, bench, mapSize, numEnemies, seed, iterations, iterMillis);
+                    System.out.printf(
+                        "%-26s %7d %4d %12.1f %9.1f %9.1f %10.1f%n",
+                        bench.name, numEnemies, mapSize,
+                        m.nanosPerOp, m.nanosPerOpError, m.bytesPerOp, m.bytecodesPerOp
+                    );
+                }
+            }
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,57 @@
+package waffleharness;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads the bot package afresh for one robot, so that every robot gets its own statics the way it
+ * does in the engine.  Everything outside the bot package, including battlecode.common, comes from
+ * the parent, so all robots share one Clock.
+ *
+ * Classes are normally instrumented to count bytecodes; the microbenchmarks also load a plain copy
+ * so that wall clock and allocation numbers are not skewed by the counting.
+ */
+class RobotClassLoader extends ClassLoader {
+
+    final Path botClassesDir;
+    final String botPackagePrefix;
+    final boolean isInstrumented;
+
+    RobotClassLoader(Path botClassesDir, String botPackage, boolean isInstrumented, ClassLoader parent) {
+        super(parent);
+        this.botClassesDir = botClassesDir;
+        this.botPackagePrefix = botPackage + ".";
+        this.isInstrumented = isInstrumented;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if(!name.startsWith(botPackagePrefix)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized(getClassLoadingLock(name)) {
+            Class<?> c = findLoadedClass(name);
+            if(c == null) {
+                c = findClass(name);
+            }
+            if(resolve) {
+                resolveClass(c);
+            }
+            return c;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        final Path classFile = botClassesDir.resolve(name.replace('.', '/') + ".class");
+        final byte[] original;
+        try {
+            original = Files.readAllBytes(classFile);
+        } catch(IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+        final byte[] bytes = isInstrumented ? BytecodeInstrumenter.instrument(original) : original;
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,83 @@
+package waffleharness;
+
+import battlecode.common.GameConstants;
+import battlecode.common.RobotController;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs one bot robot's RobotPlayer.run on its own thread, one turn at a time.
+ *
+ * The scheduler thread hands the turn over with go and waits on done; the robot hands it back from
+ * Clock.yield or when it runs out of bytecodes, exactly where the engine would pause it.
+ */
+class RobotRunner {
+
+    final SimWorld.SimRobot robot;
+    final SimRobotController rc;
+    final Class<?> playerClass;
+    final Thread thread;
+    final Semaphore go = new Semaphore(0);
+    final Semaphore done = new Semaphore(0);
+
+    int bytecodesUsed = 0;
+    boolean isFinished = false;
+    Throwable failure = null;
+
+    int numTurns = 0;
+    long totalTurnBytecodes = 0;
+    int minTurnBytecodes = Integer.MAX_VALUE;
+    int maxTurnBytecodes = 0;
+    int numOverruns = 0;
+
+    RobotRunner(SimWorld world, SimWorld.SimRobot robot, Class<?> playerClass) {
+        this.robot = robot;
+        this.rc = new SimRobotController(world, robot);
+        this.playerClass = playerClass;
+        this.thread = new Thread(this::body, "robot-" + robot.id);
+        this.thread.setDaemon(true);
+    }
+
+    void body() {
+        go.acquireUninterruptibly();
+        try {
+            playerClass.getMethod("run", RobotController.class).invoke(null, rc);
+        } catch(InvocationTargetException e) {
+            failure = e.getCause();
+        } catch(Throwable e) {
+            failure = e;
+        } finally {
+            // The engine would blow the robot up here; the harness just stops running it.
+            isFinished = true;
+            done.release();
+        }
+    }
+
+    /** Called on the scheduler thread.  Returns once the robot has ended its turn. */
+    void runTurn() {
+        if(isFinished) {
+            return;
+        }
+        bytecodesUsed = 0;
+        if(!thread.isAlive()) {
+            thread.start();
+        }
+        go.release();
+        done.acquireUninterruptibly();
+    }
+
+    /** Called on the robot thread, from Clock.yield or from a charge that hit the limit. */
+    void endTurn(boolean isOverrun) {
+        final int used = isOverrun ? GameConstants.BYTECODE_LIMIT : bytecodesUsed;
+        numTurns++;
+        totalTurnBytecodes += used;
+        minTurnBytecodes = Math.min(minTurnBytecodes, used);
+        maxTurnBytecodes = Math.max(maxTurnBytecodes, used);
+        if(isOverrun) {
+            numOverruns++;
+        }
+        done.release();
+        go.acquireUninterruptibly();
+    }
+}
@@ -0,0 +1,238 @@
+package waffleharness;
+
+import battlecode.common.MapLocation;
+import battlecode.common.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The scripted situations the harness can drive the bot through.  The bot always plays team A;
+ * team B is made of dummies that stand still and hit whatever is in range.
+ */
+final class Scenarios {
+
+    private Scenarios() {}
+
+    static final class Scenario {
+        final String name;
+        final String description;
+        final int firstRound;
+        final int numRounds;
+        final Builder builder;
+        Scenario(String name, String description, int firstRound, int numRounds, Builder builder) {
+            this.name = name;
+            this.description = description;
+            this.firstRound = firstRound;
+            this.numRounds = numRounds;
+            this.builder = builder;
+        }
+        SimWorld build(long seed) {
+            final SimWorld world = builder.build(seed);
+            world.roundNum = firstRound;
+            return world;
+        }
+    }
+
+    interface Builder {
+        SimWorld build(long seed);
+    }
+
+    static final List<Scenario> ALL = new ArrayList<>();
+    static {
+        ALL.add(new Scenario(
+            "flagCarrier",
+            "30x30 open map, an enemy flag a few steps from home guarded by 6 immortal enemies",
+            190, 200, Scenarios::buildFlagCarrier
+        ));
+        ALL.add(new Scenario(
+            "maze",
+            "60x60 seeded maze with water, bug navigation toward far away flags",
+            1, 400, Scenarios::buildMaze
+        ));
+        ALL.add(new Scenario(
+            "bigFight",
+            "30x30 open map, 12 bots against 20 enemies after setup",
+            195, 150, Scenarios::buildBigFight
+        ));
+        ALL.add(new Scenario(
+            "setup50",
+            "40x40 scattered walls and dams, 50 bots through the whole setup phase",
+            1, 210, Scenarios::buildSetup50
+        ));
+    }
+
+    static Scenario find(String name) {
+        for(Scenario s : ALL) {
+            if(s.name.equals(name)) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    static void addDefaultAllyFlags(SimWorld world, int x, int y) {
+        world.addFlag(Team.A, x, y);
+        world.addFlag(Team.A, x + 2, y);
+        world.addFlag(Team.A, x, y + 2);
+    }
+
+    static SimWorld buildFlagCarrier(long seed) {
+        final SimWorld world = new SimWorld(30, 30, seed);
+        world.addSpawnZone(Team.A, 4, 4);
+        world.addSpawnZone(Team.B, 25, 25);
+        addDefaultAllyFlags(world, 2, 8);
+        world.addFlag(Team.B, 11, 4);
+        world.addFlag(Team.B, 25, 21);
+        world.addFlag(Team.B, 21, 25);
+        final int[][] guards = {{10, 6}, {12, 6}, {13, 4}, {12, 2}, {10, 2}, {14, 5}};
+        for(int[] g : guards) {
+            world.addDummy(Team.B, g[0], g[1], true);
+        }
+        for(int i = 0; i < 8; i++) {
+            world.addBot(Team.A);
+        }
+        return world;
+    }
+
+    static SimWorld buildMaze(long seed) {
+        final int size = 60;
+        final SimWorld world = new SimWorld(size, size, seed);
+        final Random rng = new Random(seed);
+        // Corridors two tiles wide on a grid of three tile cells, carved by a randomized depth first search.
+        for(int x = 0; x < size; x++) {
+            for(int y = 0; y < size; y++) {
+                world.setTerrain(x, y, SimWorld.WALL);
+            }
+        }
+        final int cells = size / 3;
+        final boolean[][] visited = new boolean[cells][cells];
+        final int[] stack = new int[cells * cells];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        visited[0][0] = true;
+        carveCell(world, 0, 0);
+        final int[][] steps = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        while(stackSize > 0) {
+            final int top = stack[stackSize - 1];
+            final int cx = top / cells;
+            final int cy = top % cells;
+            final int start = rng.nextInt(4);
+            boolean isStuck = true;
+            for(int k = 0; k < 4; k++) {
+                final int[] s = steps[(start + k) % 4];
+                final int nx = cx + s[0];
+                final int ny = cy + s[1];
+                if(nx >= 0 && ny >= 0 && nx < cells && ny < cells && !visited[nx][ny]) {
+                    visited[nx][ny] = true;
+                    carveCell(world, nx, ny);
+                    // Knock down the wall between the two cells.
+                    final int wx = Math.min(cx, nx) * 3 + (s[0] != 0 ? 2 : 0);
+                    final int wy = Math.min(cy, ny) * 3 + (s[1] != 0 ? 2 : 0);
+                    for(int d = 0; d < 2; d++) {
+                        world.setTerrain(wx + (s[0] != 0 ? 0 : d), wy + (s[1] != 0 ? 0 : d), SimWorld.LAND);
+                    }
+                    stack[stackSize++] = nx * cells + ny;
+                    isStuck = false;
+                    break;
+                }
+            }
+            if(isStuck) {
+                stackSize--;
+            }
+        }
+        // A few extra holes so there is more than one way through, and some water to fill.
+        for(int i = 0; i < size * 2; i++) {
+            final int x = 1 + rng.nextInt(size - 2);
+            final int y = 1 + rng.nextInt(size - 2);
+            if(world.terrain[x][y] == SimWorld.WALL) {
+                world.setTerrain(x, y, rng.nextInt(3) == 0 ? SimWorld.WATER : SimWorld.LAND);
+            }
+        }
+        world.addSpawnZone(Team.A, 3, 3);
+        world.addSpawnZone(Team.B, size - 4, size - 4);
+        addDefaultAllyFlags(world, 1, 7);
+        world.addFlag(Team.B, size - 2, size - 8);
+        world.addFlag(Team.B, size - 8, size - 2);
+        world.addFlag(Team.B, size - 5, size - 5 - 3);
+        for(int x = 0; x < size; x++) {
+            for(int y = 0; y < size; y++) {
+                if(rng.nextInt(40) == 0 && world.terrain[x][y] == SimWorld.LAND) {
+                    world.crumbs[x][y] = 50;
+                }
+            }
+        }
+        for(int i = 0; i < 10; i++) {
+            world.addBot(Team.A);
+        }
+        return world;
+    }
+
+    static void carveCell(SimWorld world, int cx, int cy) {
+        for(int dx = 0; dx < 2; dx++) {
+            for(int dy = 0; dy < 2; dy++) {
+                world.setTerrain(cx * 3 + dx, cy * 3 + dy, SimWorld.LAND);
+            }
+        }
+    }
+
+    static SimWorld buildBigFight(long seed) {
+        final SimWorld world = new SimWorld(30, 30, seed);
+        final Random rng = new Random(seed);
+        world.addSpawnZone(Team.A, 4, 15);
+        world.addSpawnZone(Team.B, 25, 15);
+        addDefaultAllyFlags(world, 1, 10);
+        world.addFlag(Team.B, 27, 10);
+        world.addFlag(Team.B, 27, 20);
+        world.addFlag(Team.B, 24, 24);
+        int numDummies = 0;
+        while(numDummies < 20) {
+            final int x = 11 + rng.nextInt(8);
+            final int y = 9 + rng.nextInt(12);
+            if(world.robotAt(new MapLocation(x, y)) == null) {
+                world.addDummy(Team.B, x, y, false);
+                numDummies++;
+            }
+        }
+        for(int i = 0; i < 12; i++) {
+            world.addBot(Team.A);
+        }
+        world.teamCrumbs[SimWorld.teamIndex(Team.A)] = 1000;
+        return world;
+    }
+
+    static SimWorld buildSetup50(long seed) {
+        final SimWorld world = new SimWorld(40, 40, seed);
+        final Random rng = new Random(seed);
+        for(int x = 0; x < 40; x++) {
+            for(int y = 0; y < 40; y++) {
+                final int r = rng.nextInt(100);
+                if(r < 12) {
+                    world.setTerrain(x, y, SimWorld.WALL);
+                } else if(r < 16) {
+                    world.setTerrain(x, y, SimWorld.WATER);
+                } else if(x == 20) {
+                    world.setTerrain(x, y, SimWorld.DAM);
+                }
+                if(r == 99) {
+                    world.crumbs[x][y] = 20;
+                }
+            }
+        }
+        world.addSpawnZone(Team.A, 5, 10);
+        world.addSpawnZone(Team.A, 5, 20);
+        world.addSpawnZone(Team.A, 5, 30);
+        world.addSpawnZone(Team.B, 34, 10);
+        world.addSpawnZone(Team.B, 34, 20);
+        world.addSpawnZone(Team.B, 34, 30);
+        addDefaultAllyFlags(world, 2, 18);
+        world.addFlag(Team.B, 37, 18);
+        world.addFlag(Team.B, 37, 22);
+        world.addFlag(Team.B, 35, 25);
+        for(int i = 0; i < 50; i++) {
+            world.addBot(Team.A);
+        }
+        return world;
+    }
+}
@@ -0,0 +1,55 @@
+package waffleharness;
+
+import battlecode.common.Clock;
+import battlecode.common.GameConstants;
+
+/**
+ * The Clock.Meter for the whole harness.  Only one robot thread runs at a time, so the meter just
+ * charges whichever robot currently holds the turn.
+ */
+class Scheduler implements Clock.Meter {
+
+    RobotRunner current = null;
+
+    boolean isRobotThread() {
+        // Static initializers also run instrumented code, sometimes on the harness thread.
+        return current != null && Thread.currentThread() == current.thread;
+    }
+
+    @Override
+    public int getBytecodeNum() {
+        return isRobotThread() ? current.bytecodesUsed : 0;
+    }
+
+    @Override
+    public int getBytecodesLeft() {
+        return GameConstants.BYTECODE_LIMIT - getBytecodeNum();
+    }
+
+    @Override
+    public void charge(int bytecodes) {
+        if(!isRobotThread()) {
+            return;
+        }
+        final RobotRunner r = current;
+        r.bytecodesUsed += bytecodes;
+        if(r.bytecodesUsed >= GameConstants.BYTECODE_LIMIT) {
+            // Out of bytecodes: pause right here and carry on next turn with a fresh budget.
+            r.endTurn(true);
+            r.bytecodesUsed = 0;
+        }
+    }
+
+    @Override
+    public void yieldTurn() {
+        if(isRobotThread()) {
+            current.endTurn(false);
+        }
+    }
+
+    void runTurn(RobotRunner r) {
+        current = r;
+        r.runTurn();
+        current = null;
+    }
+}
@@ -0,0 +1,529 @@
+package waffleharness;
+
+import battlecode.common.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The RobotController handed to one bot robot.
+ *
+ * Every call first charges an approximate engine cost through Clock.charge, before touching any
+ * state, so a call that runs over the bytecode limit is paused and then executes on the next turn
+ * the way it would in the engine.  The costs are rough guesses; sensing calls that build arrays
+ * are the expensive ones.
+ *
+ * A frozen controller still checks and charges every action and still puts the robot on cooldown,
+ * but leaves the world alone, so the microbenchmarks can repeat one decision from the same state.
+ */
+class SimRobotController implements RobotController {
+
+    static final int COST_CHEAP = 1;
+    static final int COST_SENSE_ONE = 5;
+    static final int COST_SENSE_MANY = 100;
+    static final int COST_ACTION = 5;
+
+    final SimWorld world;
+    final SimWorld.SimRobot self;
+    int numIllegalActions = 0;
+    boolean isFrozen = false;
+
+    SimRobotController(SimWorld world, SimWorld.SimRobot self) {
+        this.world = world;
+        this.self = self;
+    }
+
+    static void charge(int cost) {
+        Clock.charge(cost);
+    }
+
+    GameActionException illegal(GameActionExceptionType type, String message) {
+        numIllegalActions++;
+        return new GameActionException(type, message);
+    }
+
+    boolean isWithinVision(MapLocation loc) {
+        return self.loc != null
+            && world.onTheMap(loc)
+            && self.loc.distanceSquaredTo(loc) <= GameConstants.VISION_RADIUS_SQUARED;
+    }
+
+    int clampRadius(int radiusSquared) {
+        return radiusSquared < 0 || radiusSquared > GameConstants.VISION_RADIUS_SQUARED
+            ? GameConstants.VISION_RADIUS_SQUARED
+            : radiusSquared;
+    }
+
+    MapInfo mapInfoAt(MapLocation loc) {
+        final int t = world.terrain[loc.x][loc.y];
+        final TrapType trap = world.trapTeams[loc.x][loc.y] == self.team ? world.traps[loc.x][loc.y] : null;
+        return new MapInfo(
+            loc,
+            t == SimWorld.WALL,
+            t == SimWorld.WATER,
+            t == SimWorld.DAM,
+            world.spawnZoneTeam[loc.x][loc.y],
+            trap == null ? TrapType.NONE : trap,
+            world.crumbs[loc.x][loc.y],
+            Team.NEUTRAL
+        );
+    }
+
+    // ---- info ----
+
+    @Override public int getRoundNum() { charge(COST_CHEAP); return world.roundNum; }
+    @Override public int getMapWidth() { charge(COST_CHEAP); return world.width; }
+    @Override public int getMapHeight() { charge(COST_CHEAP); return world.height; }
+    @Override public int getID() { charge(COST_CHEAP); return self.id; }
+    @Override public Team getTeam() { charge(COST_CHEAP); return self.team; }
+    @Override public MapLocation getLocation() { charge(COST_CHEAP); return self.loc; }
+    @Override public int getHealth() { charge(COST_CHEAP); return self.health; }
+    @Override public int getCrumbs() { charge(COST_CHEAP); return world.teamCrumbs[SimWorld.teamIndex(self.team)]; }
+    @Override public boolean hasFlag() { charge(COST_CHEAP); return self.heldFlag != null; }
+    @Override public boolean isSpawned() { charge(COST_CHEAP); return self.loc != null; }
+
+    @Override
+    public GlobalUpgrade[] getGlobalUpgrades(Team team) {
+        charge(COST_CHEAP);
+        return world.globalUpgrades.get(SimWorld.teamIndex(team)).toArray(new GlobalUpgrade[0]);
+    }
+
+    // ---- sensing ----
+
+    @Override
+    public boolean onTheMap(MapLocation loc) {
+        charge(COST_CHEAP);
+        return world.onTheMap(loc);
+    }
+
+    @Override
+    public boolean canSenseLocation(MapLocation loc) {
+        charge(COST_CHEAP);
+        return isWithinVision(loc);
+    }
+
+    @Override
+    public boolean isLocationOccupied(MapLocation loc) throws GameActionException {
+        charge(COST_SENSE_ONE);
+        if(!isWithinVision(loc)) {
+            throw illegal(GameActionExceptionType.CANT_SENSE_THAT, "cannot sense " + loc);
+        }
+        return world.robotAt(loc) != null;
+    }
+
+    @Override
+    public RobotInfo senseRobotAtLocation(MapLocation loc) throws GameActionException {
+        charge(COST_SENSE_ONE);
+        if(!isWithinVision(loc)) {
+            throw illegal(GameActionExceptionType.CANT_SENSE_THAT, "cannot sense " + loc);
+        }
+        final SimWorld.SimRobot r = world.robotAt(loc);
+        return r == null ? null : world.toRobotInfo(r);
+    }
+
+    @Override
+    public RobotInfo[] senseNearbyRobots() {
+        return senseNearbyRobotsImpl(-1, null);
+    }
+
+    @Override
+    public RobotInfo[] senseNearbyRobots(int radiusSquared) {
+        return senseNearbyRobotsImpl(radiusSquared, null);
+    }
+
+    @Override
+    public RobotInfo[] senseNearbyRobots(int radiusSquared, Team team) {
+        return senseNearbyRobotsImpl(radiusSquared, team);
+    }
+
+    RobotInfo[] senseNearbyRobotsImpl(int radiusSquared, Team team) {
+        charge(COST_SENSE_MANY);
+        final int r = clampRadius(radiusSquared);
+        final List<RobotInfo> result = new ArrayList<>();
+        for(SimWorld.SimRobot other : world.robots) {
+            if(other != self
+                && other.loc != null
+                && (team == null || other.team == team)
+                && self.loc.distanceSquaredTo(other.loc) <= r
+            ) {
+                result.add(world.toRobotInfo(other));
+            }
+        }
+        return result.toArray(new RobotInfo[0]);
+    }
+
+    @Override
+    public MapInfo senseMapInfo(MapLocation loc) throws GameActionException {
+        charge(COST_SENSE_ONE);
+        if(!isWithinVision(loc)) {
+            throw illegal(GameActionExceptionType.CANT_SENSE_THAT, "cannot sense " + loc);
+        }
+        return mapInfoAt(loc);
+    }
+
+    @Override
+    public MapInfo[] senseNearbyMapInfos() {
+        return senseNearbyMapInfosImpl(self.loc, GameConstants.VISION_RADIUS_SQUARED);
+    }
+
+    @Override
+    public MapInfo[] senseNearbyMapInfos(int radiusSquared) {
+        return senseNearbyMapInfosImpl(self.loc, clampRadius(radiusSquared));
+    }
+
+    @Override
+    public MapInfo[] senseNearbyMapInfos(MapLocation center, int radiusSquared) {
+        return senseNearbyMapInfosImpl(center, radiusSquared < 0 ? GameConstants.VISION_RADIUS_SQUARED : radiusSquared);
+    }
+
+    MapInfo[] senseNearbyMapInfosImpl(MapLocation center, int radiusSquared) {
+        charge(COST_SENSE_MANY);
+        final int r = (int)Math.ceil(Math.sqrt(radiusSquared));
+        final List<MapInfo> result = new ArrayList<>();
+        for(int dx = -r; dx <= r; dx++) {
+            for(int dy = -r; dy <= r; dy++) {
+                final MapLocation loc = center.translate(dx, dy);
+                if(dx * dx + dy * dy <= radiusSquared && isWithinVision(loc)) {
+                    result.add(mapInfoAt(loc));
+                }
+            }
+        }
+        return result.toArray(new MapInfo[0]);
+    }
+
+    @Override
+    public FlagInfo[] senseNearbyFlags(int radiusSquared) {
+        return senseNearbyFlags(radiusSquared, null);
+    }
+
+    @Override
+    public FlagInfo[] senseNearbyFlags(int radiusSquared, Team team) {
+        charge(COST_SENSE_MANY);
+        final int r = clampRadius(radiusSquared);
+        final List<FlagInfo> result = new ArrayList<>();
+        for(SimWorld.SimFlag f : world.flags) {
+            if(!f.isCaptured
+                && (team == null || f.team == team)
+                && self.loc.distanceSquaredTo(f.loc) <= r
+            ) {
+                result.add(new FlagInfo(f.loc, f.team, f.carrier != null, f.id));
+            }
+        }
+        return result.toArray(new FlagInfo[0]);
+    }
+
+    @Override
+    public MapLocation[] senseBroadcastFlagLocations() {
+        charge(COST_SENSE_MANY);
+        final List<MapLocation> result = new ArrayList<>();
+        for(SimWorld.SimFlag f : world.flags) {
+            if(f.team != self.team && !f.isCaptured && f.carrier == null) {
+                result.add(f.broadcastLoc);
+            }
+        }
+        return result.toArray(new MapLocation[0]);
+    }
+
+    @Override
+    public MapLocation[] senseNearbyCrumbs(int radiusSquared) {
+        charge(COST_SENSE_MANY);
+        final int r = clampRadius(radiusSquared);
+        final List<MapLocation> result = new ArrayList<>();
+        final int ri = (int)Math.ceil(Math.sqrt(r));
+        for(int dx = -ri; dx <= ri; dx++) {
+            for(int dy = -ri; dy <= ri; dy++) {
+                final MapLocation loc = self.loc.translate(dx, dy);
+                if(dx * dx + dy * dy <= r && world.onTheMap(loc) && world.crumbs[loc.x][loc.y] > 0) {
+                    result.add(loc);
+                }
+            }
+        }
+        return result.toArray(new MapLocation[0]);
+    }
+
+    @Override
+    public MapLocation[] getAllySpawnLocations() {
+        charge(COST_SENSE_MANY);
+        return world.spawnLocations(self.team).toArray(new MapLocation[0]);
+    }
+
+    @Override
+    public MapLocation adjacentLocation(Direction dir) {
+        charge(COST_CHEAP);
+        return self.loc.add(dir);
+    }
+
+    // ---- actions ----
+
+    @Override
+    public boolean isActionReady() {
+        charge(COST_CHEAP);
+        return self.actionCooldown < GameConstants.COOLDOWN_LIMIT;
+    }
+
+    @Override
+    public boolean isMovementReady() {
+        charge(COST_CHEAP);
+        return self.movementCooldown < GameConstants.COOLDOWN_LIMIT;
+    }
+
+    boolean canSpawnImpl(MapLocation loc) {
+        return self.loc == null
+            && world.onTheMap(loc)
+            && world.spawnZoneTeam[loc.x][loc.y] == SimWorld.teamIndex(self.team) + 1
+            && world.robotAt(loc) == null;
+    }
+
+    @Override
+    public boolean canSpawn(MapLocation loc) {
+        charge(COST_ACTION);
+        return canSpawnImpl(loc);
+    }
+
+    @Override
+    public void spawn(MapLocation loc) throws GameActionException {
+        charge(COST_ACTION);
+        if(!canSpawnImpl(loc)) {
+            throw illegal(GameActionExceptionType.CANT_DO_THAT, "cannot spawn at " + loc);
+        }
+        if(!isFrozen) {
+            self.loc = loc;
+            self.health = GameConstants.DEFAULT_HEALTH;
+        }
+    }
+
+    boolean canMoveImpl(Direction dir) {
+        if(self.loc == null || self.movementCooldown >= GameConstants.COOLDOWN_LIMIT) {
+            return false;
+        }
+        final MapLocation dest = self.loc.add(dir);
+        return world.isPassable(dest) && world.robotAt(dest) == null;
+    }
+
+    @Override
+    public boolean canMove(Direction dir) {
+        charge(COST_ACTION);
+        return canMoveImpl(dir);
+    }
+
+    @Override
+    public void move(Direction dir) throws GameActionException {
+        charge(COST_ACTION);
+        if(!canMoveImpl(dir)) {
+            throw illegal(GameActionExceptionType.CANT_MOVE_THERE, "cannot move " + dir);
+        }
+        if(isFrozen) {
+            self.movementCooldown += GameConstants.MOVEMENT_COOLDOWN;
+        } else {
+            world.moveRobot(self, self.loc.add(dir));
+        }
+    }
+
+    boolean canAttackImpl(MapLocation loc) {
+        if(self.loc == null || self.actionCooldown >= GameConstants.COOLDOWN_LIMIT
+            || self.loc.distanceSquaredTo(loc) > GameConstants.ATTACK_RADIUS_SQUARED
+        ) {
+            return false;
+        }
+        final SimWorld.SimRobot target = world.robotAt(loc);
+        return target != null && target.team != self.team;
+    }
+
+    @Override
+    public boolean canAttack(MapLocation loc) {
+        charge(COST_ACTION);
+        return canAttackImpl(loc);
+    }
+
+    @Override
+    public void attack(MapLocation loc) throws GameActionException {
+        charge(COST_ACTION);
+        if(!canAttackImpl(loc)) {
+            throw illegal(GameActionExceptionType.CANT_DO_THAT, "cannot attack " + loc);
+        }
+        self.actionCooldown += GameConstants.ATTACK_COOLDOWN;
+        if(!isFrozen) {
+            world.damage(world.robotAt(loc), GameConstants.DEFAULT_ATTACK_DAMAGE);
+        }
+    }
+
+    boolean canHealImpl(MapLocation loc) {
+        if(self.loc == null || self.actionCooldown >= GameConstants.COOLDOWN_LIMIT
+            || self.loc.distanceSquaredTo(loc) > GameConstants.HEAL_RADIUS_SQUARED
+        ) {
+            return false;
+        }
+        final SimWorld.SimRobot target = world.robotAt(loc);
+        return target != null && target != self && target.team == self.team;
+    }
+
+    @Override
+    public boolean canHeal(MapLocation loc) {
+        charge(COST_ACTION);
+        return canHealImpl(loc);
+    }
+
+    @Override
+    public void heal(MapLocation loc) throws GameActionException {
+        charge(COST_ACTION);
+        if(!canHealImpl(loc)) {
+            throw illegal(GameActionExceptionType.CANT_DO_THAT, "cannot heal " + loc);
+        }
+        self.actionCooldown += GameConstants.HEAL_COOLDOWN;
+        if(!isFrozen) {
+            final SimWorld.SimRobot target = world.robotAt(loc);
+            target.health = Math.min(GameConstants.DEFAULT_HEALTH, target.health + GameConstants.DEFAULT_HEAL_AMOUNT);
+        }
+    }
+
+    boolean canBuildImpl(TrapType trap, MapLocation loc) {
+        return self.loc != null
+            && self.actionCooldown < GameConstants.COOLDOWN_LIMIT
+            && self.loc.distanceSquaredTo(loc) <= GameConstants.INTERACT_RADIUS_SQUARED
+            && world.isPassable(loc)
+            && world.traps[loc.x][loc.y] == null
+            && world.teamCrumbs[SimWorld.teamIndex(self.team)] >= trap.buildCost;
+    }
+
+    @Override
+    public boolean canBuild(TrapType trap, MapLocation loc) {
+        charge(COST_ACTION);
+        return canBuildImpl(trap, loc);
+    }
+
+    @Override
+    public void build(TrapType trap, MapLocation loc) throws GameActionException {
+        charge(COST_ACTION);
+        if(!canBuildImpl(trap, loc)) {
+            throw illegal(GameActionExceptionType.CANT_DO_THAT, "cannot build " + trap + " at " + loc);
+        }
+        self.actionCooldown += trap.cooldown;
+        if(!isFrozen) {
+            world.teamCrumbs[SimWorld.teamIndex(self.team)] -= trap.buildCost;
+            world.traps[loc.x][loc.y] = trap;
+            world.trapTeams[loc.x][loc.y] = self.team;
+        }
+    }
+
+    boolean canFillImpl(MapLocation loc) {
+        return self.loc != null
+            && self.actionCooldown < GameConstants.COOLDOWN_LIMIT
+            && world.onTheMap(loc)
+            && self.loc.distanceSquaredTo(loc) <= GameConstants.INTERACT_RADIUS_SQUARED
+            && world.terrain[loc.x][loc.y] == SimWorld.WATER
+            && world.teamCrumbs[SimWorld.teamIndex(self.team)] >= GameConstants.FILL_COST;
+    }
+
+    @Override
+    public boolean canFill(MapLocation loc) {
+        charge(COST_ACTION);
+        return canFillImpl(loc);
+    }
+
+    @Override
+    public void fill(MapLocation loc) throws GameActionException {
+        charge(COST_ACTION);
+        if(!canFillImpl(loc)) {
+            throw illegal(GameActionExceptionType.CANT_DO_THAT, "cannot fill " + loc);
+        }
+        self.actionCooldown += GameConstants.FILL_COOLDOWN;
+        if(!isFrozen) {
+            world.teamCrumbs[SimWorld.teamIndex(self.team)] -= GameConstants.FILL_COST;
+            world.terrain[loc.x][loc.y] = SimWorld.LAND;
+        }
+    }
+
+    boolean canPickupFlagImpl(MapLocation loc) {
+        if(self.loc == null
+            || self.heldFlag != null
+            || self.actionCooldown >= GameConstants.COOLDOWN_LIMIT
+            || world.roundNum <= GameConstants.SETUP_ROUNDS
+            || self.loc.distanceSquaredTo(loc) > GameConstants.INTERACT_RADIUS_SQUARED
+        ) {
+            return false;
+        }
+        final SimWorld.SimFlag f = world.flagAt(loc);
+        return f != null && f.team != self.team && f.carrier == null;
+    }
+
+    @Override
+    public boolean canPickupFlag(MapLocation loc) {
+        charge(COST_ACTION);
+        return canPickupFlagImpl(loc);
+    }
+
+    @Override
+    public void pickupFlag(MapLocation loc) throws GameActionException {
+        charge(COST_ACTION);
+        if(!canPickupFlagImpl(loc)) {
+            throw illegal(GameActionExceptionType.CANT_DO_THAT, "cannot pick up a flag at " + loc);
+        }
+        final SimWorld.SimFlag f = world.flagAt(loc);
+        self.actionCooldown += GameConstants.FLAG_PICKUP_COOLDOWN;
+        if(!isFrozen) {
+            self.heldFlag = f;
+            f.carrier = self;
+            f.roundDropped = -1;
+            f.loc = self.loc;
+        }
+    }
+
+    boolean canBuyGlobalImpl(GlobalUpgrade upgrade) {
+        final List<GlobalUpgrade> bought = world.globalUpgrades.get(SimWorld.teamIndex(self.team));
+        return !bought.contains(upgrade)
+            && world.roundNum / GameConstants.GLOBAL_UPGRADE_ROUNDS > bought.size();
+    }
+
+    @Override
+    public boolean canBuyGlobal(GlobalUpgrade upgrade) {
+        charge(COST_ACTION);
+        return canBuyGlobalImpl(upgrade);
+    }
+
+    @Override
+    public void buyGlobal(GlobalUpgrade upgrade) throws GameActionException {
+        charge(COST_ACTION);
+        if(!canBuyGlobalImpl(upgrade)) {
+            throw illegal(GameActionExceptionType.CANT_DO_THAT, "cannot buy " + upgrade);
+        }
+        if(!isFrozen) {
+            world.globalUpgrades.get(SimWorld.teamIndex(self.team)).add(upgrade);
+        }
+    }
+
+    // ---- shared array ----
+
+    @Override
+    public int readSharedArray(int index) throws GameActionException {
+        charge(COST_CHEAP);
+        if(index < 0 || index >= GameConstants.SHARED_ARRAY_LENGTH) {
+            throw illegal(GameActionExceptionType.CANT_DO_THAT, "bad shared array index " + index);
+        }
+        return world.sharedArrays[SimWorld.teamIndex(self.team)][index];
+    }
+
+    @Override
+    public boolean canWriteSharedArray(int index, int value) {
+        charge(COST_CHEAP);
+        return index >= 0 && index < GameConstants.SHARED_ARRAY_LENGTH
+            && value >= 0 && value <= GameConstants.MAX_SHARED_ARRAY_VALUE;
+    }
+
+    @Override
+    public void writeSharedArray(int index, int value) throws GameActionException {
+        charge(COST_CHEAP);
+        if(index < 0 || index >= GameConstants.SHARED_ARRAY_LENGTH
+            || value < 0 || value > GameConstants.MAX_SHARED_ARRAY_VALUE
+        ) {
+            throw illegal(GameActionExceptionType.CANT_DO_THAT, "cannot write " + value + " at " + index);
+        }
+        if(!isFrozen) {
+            world.sharedArrays[SimWorld.teamIndex(self.team)][index] = value;
+        }
+    }
+
+    // ---- debug ----
+
+    @Override public void setIndicatorString(String string) { charge(COST_CHEAP); }
+    @Override public void setIndicatorDot(MapLocation loc, int red, int green, int blue) { charge(COST_CHEAP); }
+}
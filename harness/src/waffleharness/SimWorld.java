@@ -0,0 +1,277 @@
+package waffleharness;
+
+import battlecode.common.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A small, deterministic model of the game world: terrain, robots, flags, traps, crumbs and the
+ * shared arrays.  It implements the rules the bot relies on closely enough to drive it through a
+ * scenario, not closely enough to predict who wins a match.
+ */
+class SimWorld {
+
+    static final int LAND = 0;
+    static final int WALL = 1;
+    static final int WATER = 2;
+    static final int DAM = 3;
+
+    static class SimRobot {
+        final int id;
+        final Team team;
+        final boolean isBot; // bots run RobotPlayer, the others are scripted dummies
+        final boolean isImmortal;
+        MapLocation loc;
+        int health = GameConstants.DEFAULT_HEALTH;
+        int movementCooldown = 0;
+        int actionCooldown = 0;
+        SimFlag heldFlag = null;
+        SimRobot(int id, Team team, boolean isBot, boolean isImmortal) {
+            this.id = id;
+            this.team = team;
+            this.isBot = isBot;
+            this.isImmortal = isImmortal;
+        }
+    }
+
+    static class SimFlag {
+        final int id;
+        final Team team;
+        final MapLocation home;
+        MapLocation loc;
+        SimRobot carrier = null;
+        boolean isCaptured = false;
+        int roundDropped = -1; // -1 unless lying away from home with no carrier
+        MapLocation broadcastLoc;
+        SimFlag(int id, Team team, MapLocation home) {
+            this.id = id;
+            this.team = team;
+            this.home = home;
+            this.loc = home;
+            this.broadcastLoc = home;
+        }
+    }
+
+    final int width;
+    final int height;
+    final int[][] terrain;
+    final int[][] spawnZoneTeam; // 0 none, 1 team A, 2 team B
+    final TrapType[][] traps;
+    final Team[][] trapTeams;
+    final int[][] crumbs;
+    final List<SimRobot> robots = new ArrayList<>();
+    final List<SimFlag> flags = new ArrayList<>();
+    final int[][] sharedArrays = new int[2][GameConstants.SHARED_ARRAY_LENGTH];
+    final int[] teamCrumbs = {0, 0};
+    final List<List<GlobalUpgrade>> globalUpgrades = List.of(new ArrayList<>(), new ArrayList<>());
+    final Random rng;
+    int roundNum = 1;
+    int nextId = 10000;
+
+    SimWorld(int width, int height, long seed) {
+        this.width = width;
+        this.height = height;
+        this.terrain = new int[width][height];
+        this.spawnZoneTeam = new int[width][height];
+        this.traps = new TrapType[width][height];
+        this.trapTeams = new Team[width][height];
+        this.crumbs = new int[width][height];
+        this.rng = new Random(seed);
+    }
+
+    static int teamIndex(Team team) {
+        return team == Team.A ? 0 : 1;
+    }
+
+    boolean onTheMap(MapLocation loc) {
+        return loc.x >= 0 && loc.y >= 0 && loc.x < width && loc.y < height;
+    }
+
+    boolean isPassable(MapLocation loc) {
+        return onTheMap(loc) && terrain[loc.x][loc.y] == LAND;
+    }
+
+    // ---- setup helpers used by the scenarios ----
+
+    void setTerrain(int x, int y, int type) {
+        terrain[x][y] = type;
+    }
+
+    void addSpawnZone(Team team, int centerX, int centerY) {
+        for(int dx = -1; dx <= 1; dx++) {
+            for(int dy = -1; dy <= 1; dy++) {
+                terrain[centerX + dx][centerY + dy] = LAND;
+                spawnZoneTeam[centerX + dx][centerY + dy] = teamIndex(team) + 1;
+            }
+        }
+    }
+
+    SimFlag addFlag(Team team, int x, int y) {
+        final SimFlag flag = new SimFlag(nextId++, team, new MapLocation(x, y));
+        terrain[x][y] = LAND;
+        flags.add(flag);
+        return flag;
+    }
+
+    SimRobot addBot(Team team) {
+        final SimRobot robot = new SimRobot(nextId++, team, true, false);
+        robots.add(robot);
+        return robot;
+    }
+
+    SimRobot addDummy(Team team, int x, int y, boolean isImmortal) {
+        final SimRobot robot = new SimRobot(nextId++, team, false, isImmortal);
+        robot.loc = new MapLocation(x, y);
+        terrain[x][y] = LAND;
+        robots.add(robot);
+        return robot;
+    }
+
+    // ---- queries ----
+
+    SimRobot robotAt(MapLocation loc) {
+        for(SimRobot r : robots) {
+            if(loc.equals(r.loc)) {
+                return r;
+            }
+        }
+        return null;
+    }
+
+    SimFlag flagAt(MapLocation loc) {
+        for(SimFlag f : flags) {
+            if(!f.isCaptured && loc.equals(f.loc)) {
+                return f;
+            }
+        }
+        return null;
+    }
+
+    List<MapLocation> spawnLocations(Team team) {
+        final List<MapLocation> locs = new ArrayList<>();
+        for(int x = 0; x < width; x++) {
+            for(int y = 0; y < height; y++) {
+                if(spawnZoneTeam[x][y] == teamIndex(team) + 1) {
+                    locs.add(new MapLocation(x, y));
+                }
+            }
+        }
+        return locs;
+    }
+
+    RobotInfo toRobotInfo(SimRobot r) {
+        return new RobotInfo(r.id, r.team, r.health, r.loc, r.heldFlag != null, 0, 0, 0);
+    }
+
+    // ---- rules ----
+
+    void damage(SimRobot target, int amount) {
+        target.health -= amount;
+        if(target.health <= 0) {
+            if(target.isImmortal) {
+                target.health = GameConstants.DEFAULT_HEALTH;
+            } else {
+                kill(target);
+            }
+        }
+    }
+
+    void kill(SimRobot robot) {
+        if(robot.heldFlag != null) {
+            robot.heldFlag.carrier = null;
+            robot.heldFlag.loc = robot.loc;
+            robot.heldFlag.roundDropped = roundNum;
+            robot.heldFlag = null;
+        }
+        robot.loc = null;
+        robot.health = GameConstants.DEFAULT_HEALTH;
+    }
+
+    void moveRobot(SimRobot robot, MapLocation dest) {
+        robot.loc = dest;
+        robot.movementCooldown += GameConstants.MOVEMENT_COOLDOWN;
+        teamCrumbs[teamIndex(robot.team)] += crumbs[dest.x][dest.y];
+        crumbs[dest.x][dest.y] = 0;
+        if(robot.heldFlag != null) {
+            robot.heldFlag.loc = dest;
+            if(spawnZoneTeam[dest.x][dest.y] == teamIndex(robot.team) + 1) {
+                robot.heldFlag.isCaptured = true;
+                robot.heldFlag.carrier = null;
+                robot.heldFlag.loc = null;
+                robot.heldFlag = null;
+            }
+        }
+        final TrapType trap = traps[dest.x][dest.y];
+        if(trap != null && trapTeams[dest.x][dest.y] != robot.team) {
+            traps[dest.x][dest.y] = null;
+            trapTeams[dest.x][dest.y] = null;
+            if(trap == TrapType.STUN) {
+                robot.movementCooldown += 20;
+                robot.actionCooldown += 20;
+            }
+            damage(robot, trap.enterDamage);
+        }
+    }
+
+    void startRound() {
+        if(roundNum == GameConstants.SETUP_ROUNDS + 1) {
+            for(int x = 0; x < width; x++) {
+                for(int y = 0; y < height; y++) {
+                    if(terrain[x][y] == DAM) {
+                        terrain[x][y] = LAND;
+                    }
+                }
+            }
+        }
+        for(SimFlag f : flags) {
+            if(f.roundDropped != -1 && f.carrier == null
+                && roundNum - f.roundDropped >= GameConstants.FLAG_DROPPED_RESET_ROUNDS
+            ) {
+                f.loc = f.home;
+                f.roundDropped = -1;
+            }
+        }
+        if(roundNum % GameConstants.FLAG_BROADCAST_UPDATE_INTERVAL == 1) {
+            for(SimFlag f : flags) {
+                if(!f.isCaptured && f.loc != null) {
+                    f.broadcastLoc = noisyLocation(f.loc);
+                }
+            }
+        }
+        for(int t = 0; t < 2; t++) {
+            teamCrumbs[t] += 1;
+        }
+    }
+
+    MapLocation noisyLocation(MapLocation loc) {
+        final int r = (int)Math.sqrt(GameConstants.FLAG_BROADCAST_NOISE_RADIUS);
+        while(true) {
+            final int dx = rng.nextInt(2 * r + 1) - r;
+            final int dy = rng.nextInt(2 * r + 1) - r;
+            final MapLocation noisy = loc.translate(dx, dy);
+            if(dx * dx + dy * dy <= GameConstants.FLAG_BROADCAST_NOISE_RADIUS && onTheMap(noisy)) {
+                return noisy;
+            }
+        }
+    }
+
+    void endRound() {
+        for(SimRobot r : robots) {
+            r.movementCooldown = Math.max(0, r.movementCooldown - GameConstants.COOLDOWNS_PER_TURN);
+            r.actionCooldown = Math.max(0, r.actionCooldown - GameConstants.COOLDOWNS_PER_TURN);
+        }
+        roundNum++;
+    }
+
+    int numCapturedFlags(Team capturingTeam) {
+        int n = 0;
+        for(SimFlag f : flags) {
+            if(f.isCaptured && f.team != capturingTeam) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
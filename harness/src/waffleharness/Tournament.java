@@ -0,0 +1,299 @@
+package waffleharness;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays a candidate build of the bot against a pinned baseline build, one Match process per core,
+ * and stops as soon as a sequential probability ratio test reaches a verdict.
+ *
+ * Every map seed is played twice with the sides swapped.  The test is the usual logistic SPRT on the
+ * game score (win 1, draw 1/2, loss 0): H0 is that the candidate is elo0 stronger, H1 that it is elo1
+ * stronger, with error rates alpha and beta.
+ *
+ * Usage: Tournament [-candidate DIR] [-baseline DIR] [-threads N] [-games MAX] [-seed N]
+ *                   [-bots N] [-rounds N] [-elo0 E] [-elo1 E] [-alpha P] [-beta P]
+ */
+public final class Tournament {
+
+    private Tournament() {}
+
+    static final class Game {
+        final int index;
+        final long mapSeed;
+        final boolean isCandidateA;
+        Game(int index, long mapSeed, boolean isCandidateA) {
+            this.index = index;
+            this.mapSeed = mapSeed;
+            this.isCandidateA = isCandidateA;
+        }
+    }
+
+    static final class GameResult {
+        final Game game;
+        final Map<String, String> fields;
+        GameResult(Game game, Map<String, String> fields) {
+            this.game = game;
+            this.fields = fields;
+        }
+        int getInt(String key) {
+            return Integer.parseInt(fields.get(key));
+        }
+        String side(boolean isCandidate) {
+            return isCandidate == game.isCandidateA ? "A" : "B";
+        }
+        /** 1 for a candidate win, 0.5 for a draw, 0 for a loss. */
+        double candidateScore() {
+            final String winner = fields.get("winner");
+            return winner.equals("DRAW") ? 0.5 : winner.equals(side(true)) ? 1 : 0;
+        }
+    }
+
+    static final class Options {
+        String candidateDir = "harness/out/bot";
+        String baselineDir = "harness/out/baseline";
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        int maxGames = 400;
+        long seed = 1;
+        int botsPerTeam = 20;
+        int maxRounds = 1000;
+        double elo0 = 0;
+        double elo1 = 10;
+        double alpha = 0.05;
+        double beta = 0.05;
+    }
+
+    static final class Tally {
+        int wins = 0;
+        int draws = 0;
+        int losses = 0;
+        long candidateWinRoundsTotal = 0;
+        long baselineWinRoundsTotal = 0;
+        long candidateBytecodesTotal = 0;
+        long baselineBytecodesTotal = 0;
+        int candidateMaxBytecodes = 0;
+        int baselineMaxBytecodes = 0;
+        int candidateOverruns = 0;
+        int baselineOverruns = 0;
+        int numErrors = 0;
+
+        int numGames() {
+            return wins + draws + losses;
+        }
+        double score() {
+            return (wins + 0.5 * draws) / numGames();
+        }
+        double scoreVariance() {
+            final double s = score();
+            final double n = numGames();
+            return (wins * (1 - s) * (1 - s) + draws * (0.5 - s) * (0.5 - s) + losses * s * s) / n;
+        }
+        void add(GameResult r) {
+            final double score = r.candidateScore();
+            final String c = r.side(true);
+            final String b = r.side(false);
+            if(score == 1) {
+                wins++;
+                candidateWinRoundsTotal += r.getInt("rounds");
+            } else if(score == 0) {
+                losses++;
+                baselineWinRoundsTotal += r.getInt("rounds");
+            } else {
+                draws++;
+            }
+            candidateBytecodesTotal += r.getInt("avgBytecodes" + c);
+            baselineBytecodesTotal += r.getInt("avgBytecodes" + b);
+            candidateMaxBytecodes = Math.max(candidateMaxBytecodes, r.getInt("maxBytecodes" + c));
+            baselineMaxBytecodes = Math.max(baselineMaxBytecodes, r.getInt("maxBytecodes" + b));
+            candidateOverruns += r.getInt("overruns" + c);
+            baselineOverruns += r.getInt("overruns" + b);
+        }
+    }
+
+    static double scoreToElo(double score) {
+        final double s = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / s - 1);
+    }
+
+    static double eloToScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /** The log likelihood ratio of H1 against H0, in the logistic normal approximation. */
+    static double logLikelihoodRatio(Tally t, double elo0, double elo1) {
+        if(t.numGames() == 0) {
+            return 0;
+        }
+        final double var = t.scoreVariance();
+        if(var == 0) {
+            return 0;
+        }
+        final double s0 = eloToScore(elo0);
+        final double s1 = eloToScore(elo1);
+        return 0.5 * t.numGames() * (s1 - s0) * (2 * t.score() - s0 - s1) / var;
+    }
+
+    static final Set<Process> runningMatches = ConcurrentHashMap.newKeySet();
+
+    static GameResult play(Options o, Game g) throws IOException, InterruptedException {
+        final List<String> cmd = new ArrayList<>();
+        cmd.add(ProcessHandle.current().info().command().orElse("java"));
+        // Pass on --add-exports and the like, which the instrumenter needs.
+        cmd.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(Match.class.getName());
+        cmd.add("-a");
+        cmd.add(g.isCandidateA ? o.candidateDir : o.baselineDir);
+        cmd.add("-b");
+        cmd.add(g.isCandidateA ? o.baselineDir : o.candidateDir);
+        cmd.add("-seed");
+        cmd.add(Long.toString(g.mapSeed));
+        cmd.add("-bots");
+        cmd.add(Integer.toString(o.botsPerTeam));
+        cmd.add("-rounds");
+        cmd.add(Integer.toString(o.maxRounds));
+        final Process p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+        runningMatches.add(p);
+        Map<String, String> fields = null;
+        try(BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while((line = in.readLine()) != null) {
+                if(line.startsWith("RESULT ")) {
+                    fields = new HashMap<>();
+                    for(String kv : line.substring("RESULT ".length()).split(" ")) {
+                        final int eq = kv.indexOf('=');
+                        fields.put(kv.substring(0, eq), kv.substring(eq + 1));
+                    }
+                }
+            }
+        }
+        p.waitFor();
+        runningMatches.remove(p);
+        return fields == null ? null : new GameResult(g, fields);
+    }
+
+    public static void main(String[] args) throws Exception {
+        final Options o = new Options();
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-candidate": o.candidateDir = args[++i]; break;
+                case "-baseline": o.baselineDir = args[++i]; break;
+                case "-threads": o.numThreads = Integer.parseInt(args[++i]); break;
+                case "-games": o.maxGames = Integer.parseInt(args[++i]); break;
+                case "-seed": o.seed = Long.parseLong(args[++i]); break;
+                case "-bots": o.botsPerTeam = Integer.parseInt(args[++i]); break;
+                case "-rounds": o.maxRounds = Integer.parseInt(args[++i]); break;
+                case "-elo0": o.elo0 = Double.parseDouble(args[++i]); break;
+                case "-elo1": o.elo1 = Double.parseDouble(args[++i]); break;
+                case "-alpha": o.alpha = Double.parseDouble(args[++i]); break;
+                case "-beta": o.beta = Double.parseDouble(args[++i]); break;
+                default:
+                    System.err.println("Unknown argument " + args[i]);
+                    System.exit(2);
+            }
+        }
+        final double lowerBound = Math.log(o.beta / (1 - o.alpha));
+        final double upperBound = Math.log((1 - o.beta) / o.alpha);
+        System.out.printf(
+            "candidate %s vs baseline %s: up to %d games on %d threads, SPRT elo0=%.1f elo1=%.1f alpha=%.3f beta=%.3f bounds [%.2f, %.2f]%n",
+            o.candidateDir, o.baselineDir, o.maxGames, o.numThreads, o.elo0, o.elo1, o.alpha, o.beta, lowerBound, upperBound
+        );
+
+        final ExecutorService pool = Executors.newFixedThreadPool(o.numThreads);
+        final CompletionService<GameResult> done = new ExecutorCompletionService<>(pool);
+        final List<Future<GameResult>> inFlight = new ArrayList<>();
+        int nextGame = 0;
+        int numFinished = 0;
+        final Tally t = new Tally();
+        String verdict = "inconclusive: ran out of games";
+        while(nextGame < o.maxGames && inFlight.size() < o.numThreads) {
+            final Game g = new Game(nextGame, o.seed + nextGame / 2, nextGame % 2 == 0);
+            inFlight.add(done.submit(() -> play(o, g)));
+            nextGame++;
+        }
+        while(numFinished < nextGame) {
+            final Future<GameResult> f = done.take();
+            inFlight.remove(f);
+            numFinished++;
+            final GameResult r = f.get();
+            if(r == null) {
+                t.numErrors++;
+                System.out.println("a match produced no result");
+            } else {
+                t.add(r);
+                final double llr = logLikelihoodRatio(t, o.elo0, o.elo1);
+                System.out.printf(
+                    "game %3d map %d candidate %s: %s in %s rounds  W-D-L %d-%d-%d  LLR %.2f%n",
+                    r.game.index, r.game.mapSeed, r.side(true),
+                    r.candidateScore() == 1 ? "win" : r.candidateScore() == 0 ? "loss" : "draw",
+                    r.fields.get("rounds"), t.wins, t.draws, t.losses, llr
+                );
+                if(llr >= upperBound) {
+                    verdict = "H1 accepted: the candidate is stronger";
+                    break;
+                }
+                if(llr <= lowerBound) {
+                    verdict = "H0 accepted: the candidate is not stronger";
+                    break;
+                }
+            }
+            if(nextGame < o.maxGames) {
+                final Game g = new Game(nextGame, o.seed + nextGame / 2, nextGame % 2 == 0);
+                inFlight.add(done.submit(() -> play(o, g)));
+                nextGame++;
+            }
+        }
+        // Once there is a verdict the games still in flight are not needed.
+        pool.shutdownNow();
+        for(Process p : runningMatches) {
+            p.destroyForcibly();
+        }
+        report(o, t, verdict);
+        System.exit(0);
+    }
+
+    static void report(Options o, Tally t, String verdict) {
+        final int n = t.numGames();
+        System.out.println();
+        System.out.println(verdict);
+        if(n == 0) {
+            return;
+        }
+        final double s = t.score();
+        final double margin = 1.96 * Math.sqrt(t.scoreVariance() / n);
+        System.out.printf(
+            "games %d  W-D-L %d-%d-%d  score %.3f  elo %.1f [%.1f, %.1f] (95%%)  LLR %.2f%n",
+            n, t.wins, t.draws, t.losses, s,
+            scoreToElo(s), scoreToElo(s - margin), scoreToElo(s + margin),
+            logLikelihoodRatio(t, o.elo0, o.elo1)
+        );
+        System.out.printf(
+            "mean winning round: candidate %s, baseline %s%n",
+            t.wins == 0 ? "-" : Long.toString(t.candidateWinRoundsTotal / t.wins),
+            t.losses == 0 ? "-" : Long.toString(t.baselineWinRoundsTotal / t.losses)
+        );
+        System.out.printf(
+            "bytecodes/turn: candidate avg %d max %d overruns %d, baseline avg %d max %d overruns %d%n",
+            t.candidateBytecodesTotal / n, t.candidateMaxBytecodes, t.candidateOverruns,
+            t.baselineBytecodesTotal / n, t.baselineMaxBytecodes, t.baselineOverruns
+        );
+        if(t.numErrors != 0) {
+            System.out.println(t.numErrors + " matches failed to report a result");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+#!/bin/sh
+# Plays the working tree's bot against a pinned baseline revision, in parallel, until the SPRT
+# reaches a verdict.  The baseline is the bot as of a git revision (HEAD by default).
+#
+#   harness/tournament.sh                          working tree vs HEAD
+#   harness/tournament.sh -rev v1.2 -games 200     against a tag, at most 200 games
+#   harness/tournament.sh -elo0 0 -elo1 20 -bots 30 -rounds 1500
+set -e
+cd "$(dirname "$0")/.."
+REV=HEAD
+if [ "$1" = "-rev" ]; then
+    REV="$2"
+    shift 2
+fi
+. harness/build.sh
+mkdir -p harness/out/baseline-rev
+# Older revisions keep the bot at the repository root rather than in waffle/.
+for f in $(git ls-tree --name-only "$REV" waffle/ | grep '\.java$') $(git ls-tree --name-only "$REV" | grep '\.java$'); do
+    git show "$REV:$f" > "harness/out/baseline-rev/$(basename "$f")"
+done
+compile_bot harness/out/baseline-rev harness/out/baseline
+exec java $EXPORTS -cp harness/out/harness waffleharness.Tournament \
+    -candidate harness/out/bot -baseline harness/out/baseline "$@"
@@ -0,0 +1,253 @@
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Aggregates the per-turn TR lines that RobotPlayer prints with TRACE_ENABLED into bytecode hot-spot
+ * and overrun reports, across any number of match logs.
+ *
+ * Turn on RobotPlayer.TRACE_ENABLED, play the matches, save their output, then:
+ *     java scripts/AnalyzeTraces.java [-top N] [-bucket ROUNDS] match1.txt match2.txt.gz ...
+ * With no files it reads standard input, so harness/run.sh -verbose can be piped straight in.
+ *
+ * Logs are read one line at a time and only the totals and the N most expensive turns are kept, so
+ * memory does not grow with the logs.  The engine's "[A: #12@345] " prefix is skipped.  Lines that are
+ * not traces are tallied by the known messages they contain, the rest as "other".
+ */
+public class AnalyzeTraces {
+
+    static final String[] KNOWN_MESSAGES = {
+        "GameActionException", "Exception", "ROUND NUM INCREASED", "SHOULD NEVER OCCUR", "NOT EXPECTED TO EVER OCCUR",
+    };
+
+    /** Calls, total, max and overruns of one phase or move branch. */
+    static class Stat {
+        long calls;
+        long total;
+        long max;
+        long overruns;
+        void add(long used, boolean isOverrun) {
+            calls++;
+            total += used;
+            max = Math.max(max, used);
+            if(isOverrun) {
+                overruns++;
+            }
+        }
+    }
+
+    /** One of the most expensive turns, kept whole for the report. */
+    static class Turn {
+        final long bytecodes;
+        final String where;
+        final String line;
+        Turn(long bytecodes, String where, String line) {
+            this.bytecodes = bytecodes;
+            this.where = where;
+            this.line = line;
+        }
+    }
+
+    static int numTopTurns = 10;
+    static int roundBucket = 100;
+
+    static long numTurns = 0;
+    static long numSkippedTurns = 0;
+    static long numMalformedLines = 0;
+    static final Stat turnStat = new Stat();
+    static final Map<String, Stat> phaseStats = new LinkedHashMap<>();
+    static final Map<String, Stat> branchMoveStats = new LinkedHashMap<>();
+    static final Map<String, Stat> branchTurnStats = new LinkedHashMap<>();
+    // bucket start round -> {turns, overrun turns, turn bytecodes}
+    static final TreeMap<Integer, long[]> roundBuckets = new TreeMap<>();
+    static final Map<String, Long> messageCounts = new LinkedHashMap<>();
+    static final PriorityQueue<Turn> topTurns = new PriorityQueue<>((a, b) -> Long.compare(a.bytecodes, b.bytecodes));
+
+    public static void main(String[] args) throws IOException {
+        final List<String> files = new ArrayList<>();
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-top": numTopTurns = Integer.parseInt(args[++i]); break;
+                case "-bucket": roundBucket = Integer.parseInt(args[++i]); break;
+                default: files.add(args[i]);
+            }
+        }
+        if(files.isEmpty()) {
+            read("stdin", System.in);
+        }
+        for(String file : files) {
+            InputStream in = new FileInputStream(file);
+            if(file.endsWith(".gz")) {
+                in = new GZIPInputStream(in);
+            }
+            try(InputStream closing = in) {
+                read(file, closing);
+            }
+        }
+        report();
+    }
+
+    static void read(String name, InputStream in) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long lineNum = 0;
+        String line;
+        while((line = reader.readLine()) != null) {
+            lineNum++;
+            if(line.startsWith("[")) {
+                final int end = line.indexOf("] ");
+                if(end >= 0) {
+                    line = line.substring(end + 2);
+                }
+            }
+            if(line.startsWith("TR ")) {
+                if(!readTrace(name + ":" + lineNum, line)) {
+                    numMalformedLines++;
+                }
+            } else if(!line.startsWith("PROF ") && !line.isEmpty()) {
+                String kind = "other";
+                for(String message : KNOWN_MESSAGES) {
+                    if(line.contains(message)) {
+                        kind = message;
+                        break;
+                    }
+                }
+                messageCounts.merge(kind, 1L, Long::sum);
+            }
+        }
+    }
+
+    /** TR <id> <round> <turn bytecodes>[!] <turns skipped> <move branches> <phase>:<bytecodes>[!] ... */
+    static boolean readTrace(String where, String line) {
+        final String[] fields = line.split(" ");
+        if(fields.length < 6) {
+            return false;
+        }
+        final int round;
+        final long turnBytecodes;
+        final boolean isTurnOverrun = fields[3].endsWith("!");
+        try {
+            round = Integer.parseInt(fields[2]);
+            turnBytecodes = Long.parseLong(isTurnOverrun ? fields[3].substring(0, fields[3].length() - 1) : fields[3]);
+            numSkippedTurns += Long.parseLong(fields[4]);
+        } catch(NumberFormatException e) {
+            return false;
+        }
+        boolean isOverrun = isTurnOverrun;
+        long moveBytecodes = 0;
+        for(int i = 6; i < fields.length; i++) {
+            final String field = fields[i];
+            final int colon = field.indexOf(':');
+            if(colon < 0) {
+                return false;
+            }
+            final boolean isPhaseOverrun = field.endsWith("!");
+            final long used;
+            try {
+                used = Long.parseLong(field.substring(colon + 1, field.length() - (isPhaseOverrun ? 1 : 0)));
+            } catch(NumberFormatException e) {
+                return false;
+            }
+            final String phase = field.substring(0, colon);
+            phaseStats.computeIfAbsent(phase, k -> new Stat()).add(used, isPhaseOverrun);
+            if(phase.equals("move")) {
+                moveBytecodes = used;
+            }
+            isOverrun |= isPhaseOverrun;
+        }
+
+        numTurns++;
+        turnStat.add(turnBytecodes, isOverrun);
+        for(String branch : fields[5].split("\\+")) {
+            branchMoveStats.computeIfAbsent(branch, k -> new Stat()).add(moveBytecodes, isOverrun);
+            branchTurnStats.computeIfAbsent(branch, k -> new Stat()).add(turnBytecodes, isOverrun);
+        }
+        final long[] bucket = roundBuckets.computeIfAbsent(round / roundBucket * roundBucket, k -> new long[3]);
+        bucket[0]++;
+        bucket[1] += isOverrun ? 1 : 0;
+        bucket[2] += turnBytecodes;
+        if(topTurns.size() < numTopTurns) {
+            topTurns.add(new Turn(turnBytecodes, where, line));
+        } else if(numTopTurns > 0 && turnBytecodes > topTurns.peek().bytecodes) {
+            topTurns.poll();
+            topTurns.add(new Turn(turnBytecodes, where, line));
+        }
+        return true;
+    }
+
+    static void report() {
+        System.out.printf(Locale.ROOT, "traced turns %d  skipped %d  malformed lines %d%n",
+            numTurns, numSkippedTurns, numMalformedLines);
+        if(numTurns > 0) {
+            reportTurns();
+        }
+
+        if(!messageCounts.isEmpty()) {
+            System.out.println();
+            System.out.println("other lines");
+            for(Map.Entry<String, Long> e : messageCounts.entrySet()) {
+                System.out.printf(Locale.ROOT, "  %-28s %9d%n", e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /** The per-turn sections, which need at least one traced turn. */
+    static void reportTurns() {
+        System.out.printf(Locale.ROOT, "bytecodes/turn avg %d max %d  overrun turns %d%n",
+            turnStat.total / numTurns, turnStat.max, turnStat.overruns);
+
+        System.out.println();
+        System.out.println("phase hot spots, by share of all traced bytecodes");
+        System.out.printf(Locale.ROOT, "  %-10s %9s %6s %8s %8s %6s%n", "phase", "calls", "share", "avg", "max", "ovr");
+        final List<Map.Entry<String, Stat>> phases = new ArrayList<>(phaseStats.entrySet());
+        phases.sort((a, b) -> Long.compare(b.getValue().total, a.getValue().total));
+        for(Map.Entry<String, Stat> e : phases) {
+            final Stat s = e.getValue();
+            System.out.printf(Locale.ROOT, "  %-10s %9d %5.1f%% %8d %8d %6d%n",
+                e.getKey(), s.calls, 100.0 * s.total / turnStat.total, s.total / s.calls, s.max, s.overruns);
+        }
+
+        System.out.println();
+        System.out.println("move branches (a turn counts for every branch it entered)");
+        System.out.printf(Locale.ROOT, "  %-10s %9s %6s %8s %8s %8s %6s%n",
+            "branch", "turns", "share", "avgMove", "maxMove", "avgTurn", "ovr");
+        final List<Map.Entry<String, Stat>> branches = new ArrayList<>(branchMoveStats.entrySet());
+        branches.sort((a, b) -> Long.compare(b.getValue().total, a.getValue().total));
+        for(Map.Entry<String, Stat> e : branches) {
+            final Stat move = e.getValue();
+            final Stat turn = branchTurnStats.get(e.getKey());
+            System.out.printf(Locale.ROOT, "  %-10s %9d %5.1f%% %8d %8d %8d %6d%n",
+                e.getKey(), move.calls, 100.0 * move.calls / numTurns,
+                move.total / move.calls, move.max, turn.total / turn.calls, move.overruns);
+        }
+
+        System.out.println();
+        System.out.println("turns by round");
+        System.out.printf(Locale.ROOT, "  %-11s %9s %8s %6s%n", "rounds", "turns", "avg", "ovr");
+        for(Map.Entry<Integer, long[]> e : roundBuckets.entrySet()) {
+            final long[] b = e.getValue();
+            System.out.printf(Locale.ROOT, "  %5d-%-5d %9d %8d %6d%n",
+                e.getKey(), e.getKey() + roundBucket - 1, b[0], b[2] / b[0], b[1]);
+        }
+
+        if(!topTurns.isEmpty()) {
+            System.out.println();
+            System.out.println("most expensive turns");
+            final List<Turn> turns = new ArrayList<>(topTurns);
+            turns.sort((a, b) -> Long.compare(b.bytecodes, a.bytecodes));
+            for(Turn t : turns) {
+                System.out.println("  " + t.where + "  " + t.line);
+            }
+        }
+    }
+}
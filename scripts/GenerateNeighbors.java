@@ -0,0 +1,197 @@
+import java.util.Locale;
+
+/**
+ * Generates Neighbors.java, the unrolled neighbor scans used by the navigation and trap code in RobotPlayer.
+ *
+ * Run from the repository root:
+ *     java scripts/GenerateNeighbors.java > waffle/Neighbors.java
+ *
+ * Every method checks the 8 neighbors in the order of RobotPlayer.MOVEMENT_DIRECTIONS, and bit k of
+ * every mask refers to MOVEMENT_DIRECTIONS[k].  The offsets are baked in as constants, so the scans
+ * pay no loop, array or adjacentLocation overhead under the bytecode meter.
+ */
+public class GenerateNeighbors {
+
+    static final String[] NAMES = {
+        "NORTH", "NORTHEAST", "EAST", "SOUTHEAST", "SOUTH", "SOUTHWEST", "WEST", "NORTHWEST",
+    };
+    static final int[] DX = {0, 1, 1, 1, 0, -1, -1, -1};
+    static final int[] DY = {1, 1, 0, -1, -1, -1, 0, 1};
+
+    static final StringBuilder out = new StringBuilder();
+
+    static void line(String format, Object... args) {
+        out.append(String.format(Locale.ROOT, format, args)).append('\n');
+    }
+
+    static String offset(String base, int d) {
+        return d == 0 ? base : d > 0 ? base + " + " + d : base + " - " + (-d);
+    }
+
+    static int maskOfDirectionsWith(boolean useDx, int value) {
+        int mask = 0;
+        for(int k = 0; k < 8; k++) {
+            if((useDx ? DX[k] : DY[k]) == value) {
+                mask |= 1 << k;
+            }
+        }
+        return mask;
+    }
+
+    static void emitCanMoveMask() {
+        line("    /** Bit k is set if rc.canMove(MOVEMENT_DIRECTIONS[k]). */");
+        line("    static int computeCanMoveMask(RobotController rc) {");
+        line("        int mask = 0;");
+        for(int k = 0; k < 8; k++) {
+            line("        if(rc.canMove(Direction.%s)) {", NAMES[k]);
+            line("            mask |= %d;", 1 << k);
+            line("        }");
+        }
+        line("        return mask;");
+        line("    }");
+    }
+
+    static void emitOnTheMapMask() {
+        line("    /** Bit k is set if the neighbor of (x, y) in MOVEMENT_DIRECTIONS[k] is on the map. */");
+        line("    static int computeOnTheMapMask(int x, int y, int mapWidth, int mapHeight) {");
+        line("        int mask = %d;", 0xFF);
+        line("        if(x == 0) {");
+        line("            mask &= ~%d;", maskOfDirectionsWith(true, -1));
+        line("        } else if(x == mapWidth - 1) {");
+        line("            mask &= ~%d;", maskOfDirectionsWith(true, 1));
+        line("        }");
+        line("        if(y == 0) {");
+        line("            mask &= ~%d;", maskOfDirectionsWith(false, -1));
+        line("        } else if(y == mapHeight - 1) {");
+        line("            mask &= ~%d;", maskOfDirectionsWith(false, 1));
+        line("        }");
+        line("        return mask;");
+        line("    }");
+    }
+
+    static void emitFindMinNeighbor(String name, boolean reverse, String tieDoc) {
+        line("    /**");
+        line("     * Among the neighbors of (x, y) allowed by validMask whose grid value is nonzero, finds the one with");
+        line("     * the smallest (value & valueMask) that is less than bound.  Ties go to the %s.", tieDoc);
+        line("     * Returns ((value & valueMask) << 3) | directionIndex, or -1 if there is no such neighbor.");
+        line("     */");
+        line("    static int %s(int[][] grid, int x, int y, int validMask, int valueMask, int bound) {", name);
+        line("        int best = bound;");
+        line("        int bestIdx = -1;");
+        line("        int v;");
+        for(int i = 0; i < 8; i++) {
+            final int k = reverse ? 7 - i : i;
+            line("        if((validMask & %d) != 0) {", 1 << k);
+            line("            v = grid[%s][%s];", offset("x", DX[k]), offset("y", DY[k]));
+            line("            if(v != 0 && (v & valueMask) < best) {");
+            line("                best = v & valueMask;");
+            line("                bestIdx = %d;", k);
+            line("            }");
+            line("        }");
+        }
+        line("        return bestIdx == -1 ? -1 : (best << 3) | bestIdx;");
+        line("    }");
+    }
+
+    static void emitFindNeighborNearestTo() {
+        line("    /**");
+        line("     * Among the neighbors of (x, y) allowed by validMask, finds the one nearest to (destX, destY).");
+        line("     * Ties go to the first in MOVEMENT_DIRECTIONS order.");
+        line("     * Returns (distanceSquared << 3) | directionIndex, or -1 if validMask is 0.");
+        line("     */");
+        line("    static int findNeighborNearestTo(int x, int y, int destX, int destY, int validMask) {");
+        line("        final int dx = x - destX;");
+        line("        final int dy = y - destY;");
+        line("        int best = Integer.MAX_VALUE;");
+        line("        int bestIdx = -1;");
+        line("        int d;");
+        for(int k = 0; k < 8; k++) {
+            final String a = DX[k] == 0 ? "dx * dx" : "(" + offset("dx", DX[k]) + ") * (" + offset("dx", DX[k]) + ")";
+            final String b = DY[k] == 0 ? "dy * dy" : "(" + offset("dy", DY[k]) + ") * (" + offset("dy", DY[k]) + ")";
+            line("        if((validMask & %d) != 0) {", 1 << k);
+            line("            d = %s + %s;", a, b);
+            line("            if(d < best) {");
+            line("                best = d;");
+            line("                bestIdx = %d;", k);
+            line("            }");
+            line("        }");
+        }
+        line("        return bestIdx == -1 ? -1 : (best << 3) | bestIdx;");
+        line("    }");
+    }
+
+    static String tile(int a, int b) {
+        return "t" + (a < 0 ? "M" + (-a) : "P" + a) + (b < 0 ? "M" + (-b) : "P" + b);
+    }
+
+    static String coord(String name, int d) {
+        return d < 0 ? name + "M" + (-d) : name + "P" + d;
+    }
+
+    static void emitStunTrapSiteMask() {
+        line("    /**");
+        line("     * Bit k is set if terrain says the neighbor of (x, y) in MOVEMENT_DIRECTIONS[k] can take a stun trap that no");
+        line("     * other stun trap already covers: it is sensed, passable, trap free, and has no stun trap next to it");
+        line("     * orthogonally.  The block of tiles within 2 of (x, y), less its corners, is read once; off the map reads as 0.");
+        line("     */");
+        line("    static int computeStunTrapSiteMask(int[][] terrain, int x, int y, int mapWidth, int mapHeight) {");
+        for(int d = -2; d <= 2; d++) {
+            if(d != 0) {
+                line("        final boolean %s = %s;", coord("hasX", d), d < 0 ? "x >= " + (-d) : offset("x", d) + " < mapWidth");
+                line("        final boolean %s = %s;", coord("hasY", d), d < 0 ? "y >= " + (-d) : offset("y", d) + " < mapHeight");
+            }
+        }
+        for(int a = -2; a <= 2; a++) {
+            line("        final int[] %s = %s;", coord("col", a), a == 0 ? "terrain[x]" : coord("hasX", a) + " ? terrain[" + offset("x", a) + "] : null");
+        }
+        for(int a = -2; a <= 2; a++) {
+            for(int b = -2; b <= 2; b++) {
+                if(Math.abs(a) == 2 && Math.abs(b) == 2) {
+                    continue;
+                }
+                String cond = a == 0 ? "" : coord("hasX", a);
+                if(b != 0) {
+                    cond = cond.isEmpty() ? coord("hasY", b) : cond + " && " + coord("hasY", b);
+                }
+                final String read = coord("col", a) + "[" + offset("y", b) + "]";
+                line("        final int %s = %s;", tile(a, b), cond.isEmpty() ? read : cond + " ? " + read + " : 0");
+            }
+        }
+        line("        int mask = 0;");
+        for(int k = 0; k < 8; k++) {
+            final int a = DX[k];
+            final int b = DY[k];
+            line("        if((%s & (RobotPlayer.TERRAIN_SENSED_BIT | RobotPlayer.TERRAIN_IMPASSABLE_BITS | RobotPlayer.TERRAIN_TRAP_BIT)) == RobotPlayer.TERRAIN_SENSED_BIT", tile(a, b));
+            line("            && ((%s | %s | %s | %s | %s) & RobotPlayer.TERRAIN_STUN_TRAP_BIT) == 0",
+                tile(a, b), tile(a - 1, b), tile(a + 1, b), tile(a, b - 1), tile(a, b + 1));
+            line("        ) {");
+            line("            mask |= %d;", 1 << k);
+            line("        }");
+        }
+        line("        return mask;");
+        line("    }");
+    }
+
+    public static void main(String[] args) {
+        line("package waffle;");
+        line("");
+        line("import battlecode.common.*;");
+        line("");
+        line("// GENERATED by scripts/GenerateNeighbors.java.  Do not edit by hand; change the generator and rerun it.");
+        line("final class Neighbors {");
+        line("");
+        emitCanMoveMask();
+        line("");
+        emitOnTheMapMask();
+        line("");
+        emitFindMinNeighbor("findMinNeighbor", false, "first neighbor in MOVEMENT_DIRECTIONS order");
+        line("");
+        emitFindMinNeighbor("findMinNeighborLastTie", true, "last neighbor in MOVEMENT_DIRECTIONS order");
+        line("");
+        emitFindNeighborNearestTo();
+        line("");
+        emitStunTrapSiteMask();
+        line("}");
+        System.out.print(out);
+    }
+}
@@ -0,0 +1,193 @@
+import java.util.Locale;
+
+/**
+ * Generates ScoringTables.java, the fixed-point lookup tables behind RobotPlayer's threat grid
+ * and the combat and trap scores drawn from it.
+ *
+ * Run from the repository root:
+ *     java scripts/GenerateScoringTables.java > waffle/ScoringTables.java
+ *
+ * The tables are literals, so the robot never computes them, but Java compiles array literals to
+ * element by element stores in the static initializer: about 3300 bytecodes, charged to the turn of first
+ * use.  RobotPlayer.loadScoringTables pays that early, in a turn with room for it.  Direction k is
+ * RobotPlayer.MOVEMENT_DIRECTIONS[k].  Robots near us are bits of 7x7 near grid bitboards.  An enemy's
+ * cell on the 9x9 vision grid indexes the per-offset tables, and cell c of the 5x5 threat grid is lane
+ * c of a packed table.
+ */
+public class GenerateScoringTables {
+
+    static final int[] DX = {0, 1, 1, 1, 0, -1, -1, -1};
+    static final int[] DY = {1, 1, 0, -1, -1, -1, 0, 1};
+
+    static final int ATTACK_RADIUS_SQUARED = 4;
+    // Robots are sensed within vision radius squared 20, so at most 4 tiles away on each axis.
+    static final int VISION_GRID_RADIUS = 4;
+    // Covers RobotPlayer.NEAR_ROBOT_MAX_DIST_SQD, radius squared 10, so 3 tiles on each axis.
+    static final int NEAR_GRID_RADIUS = 3;
+    static final int BIT_INDEX_MODULUS = 67;
+    // The threat grid covers the 5x5 tiles around where we stood when it was built, so every tile next to
+    // us stays on it (see RobotPlayer.NEAR_ROBOT_MAX_DIST_SQD).
+    static final int GRID_RADIUS = 2;
+    static final int RECIPROCAL_SHIFT = 8;
+    static final int RECIPROCAL_OF_ZERO = 1 << 12; // an enemy standing on the tile
+    static final int SCALAR_SHIFT = 12;
+    static final int SCALAR_MAX_EXPONENT = 24;
+
+    static final StringBuilder out = new StringBuilder();
+
+    static void line(String format, Object... args) {
+        out.append(String.format(Locale.ROOT, format, args)).append('\n');
+    }
+
+    static int reciprocal(int distanceSquared) {
+        return distanceSquared == 0
+            ? RECIPROCAL_OF_ZERO
+            : (int)Math.round((double)(1 << RECIPROCAL_SHIFT) / distanceSquared);
+    }
+
+    static void emitLongTable(String name, long[] values, int perLine) {
+        line("    static final long[] %s = {", name);
+        for(int i = 0; i < values.length; i += perLine) {
+            final StringBuilder sb = new StringBuilder("       ");
+            for(int j = i; j < Math.min(values.length, i + perLine); j++) {
+                sb.append(String.format(Locale.ROOT, " 0x%xL,", values[j]));
+            }
+            line("%s", sb);
+        }
+        line("    };");
+    }
+
+    static void emitIntTable(String name, int[] values, int perLine) {
+        line("    static final int[] %s = {", name);
+        for(int i = 0; i < values.length; i += perLine) {
+            final StringBuilder sb = new StringBuilder("       ");
+            for(int j = i; j < Math.min(values.length, i + perLine); j++) {
+                sb.append(' ').append(values[j]).append(',');
+            }
+            line("%s", sb);
+        }
+        line("    };");
+    }
+
+    public static void main(String[] args) {
+        line("package waffle;");
+        line("");
+        line("// GENERATED by scripts/GenerateScoringTables.java.  Do not edit by hand; change the generator and rerun it.");
+        line("final class ScoringTables {");
+        line("");
+
+        final int offsetSide = 2 * VISION_GRID_RADIUS + 1;
+        final int gridSide = 2 * GRID_RADIUS + 1;
+        final int numCells = gridSide * gridSide;
+        final int numProximityLanes = (numCells + 3) / 4;
+        line("    static final int VISION_GRID_RADIUS = %d;", VISION_GRID_RADIUS);
+        line("    static final int VISION_GRID_SIDE = %d;", offsetSide);
+        line("");
+
+        final int nearSide = 2 * NEAR_GRID_RADIUS + 1;
+        final long[] actionMasks = new long[nearSide * nearSide];
+        for(int ax = -NEAR_GRID_RADIUS; ax <= NEAR_GRID_RADIUS; ax++) {
+            for(int ay = -NEAR_GRID_RADIUS; ay <= NEAR_GRID_RADIUS; ay++) {
+                long mask = 0;
+                for(int bx = -NEAR_GRID_RADIUS; bx <= NEAR_GRID_RADIUS; bx++) {
+                    for(int by = -NEAR_GRID_RADIUS; by <= NEAR_GRID_RADIUS; by++) {
+                        final int d = (ax - bx) * (ax - bx) + (ay - by) * (ay - by);
+                        if(d > 0 && d <= ATTACK_RADIUS_SQUARED) {
+                            mask |= 1L << ((bx + NEAR_GRID_RADIUS) * nearSide + (by + NEAR_GRID_RADIUS));
+                        }
+                    }
+                }
+                actionMasks[(ax + NEAR_GRID_RADIUS) * nearSide + (ay + NEAR_GRID_RADIUS)] = mask;
+            }
+        }
+        final int[] bitIndex = new int[BIT_INDEX_MODULUS];
+        for(int b = 0; b < 64; b++) {
+            bitIndex[(int)Long.remainderUnsigned(1L << b, BIT_INDEX_MODULUS)] = b;
+        }
+        line("    static final int NEAR_GRID_RADIUS = %d;", NEAR_GRID_RADIUS);
+        line("    static final int NEAR_GRID_SIDE = %d;", nearSide);
+        line("    /**");
+        line("     * Bit (dx + NEAR_GRID_RADIUS) * NEAR_GRID_SIDE + (dy + NEAR_GRID_RADIUS) of a near grid bitboard is the tile at");
+        line("     * offset (dx, dy) from its center.  Entry b holds the bits within attack and heal radius of bit b, not b itself.");
+        line("     */");
+        emitLongTable("NEAR_ACTION_MASKS", actionMasks, 4);
+        line("    static final int BIT_INDEX_MODULUS = %d;", BIT_INDEX_MODULUS);
+        line("    /** The powers of two below 2^64 are distinct mod BIT_INDEX_MODULUS; entry (2^b mod BIT_INDEX_MODULUS) is b. */");
+        emitIntTable("BIT_INDEX", bitIndex, 16);
+        line("");
+
+        line("    static final int THREAT_GRID_RADIUS = %d;", GRID_RADIUS);
+        line("    static final int THREAT_GRID_SIDE = %d;", gridSide);
+        line("    static final int THREAT_GRID_CENTER_CELL = %d;", numCells / 2);
+        line("    /** Cell (dx, dy) of the threat grid is (dx + THREAT_GRID_RADIUS) * THREAT_GRID_SIDE + (dy + THREAT_GRID_RADIUS); this is the step to the cell in direction k. */");
+        final int[] steps = new int[8];
+        for(int k = 0; k < 8; k++) {
+            steps[k] = DX[k] * gridSide + DY[k];
+        }
+        emitIntTable("THREAT_GRID_DIR_STEPS", steps, 8);
+        line("");
+
+        final long[] reach = new long[offsetSide * offsetSide];
+        final long[][] proximity = new long[numProximityLanes][offsetSide * offsetSide];
+        for(int ex = -VISION_GRID_RADIUS; ex <= VISION_GRID_RADIUS; ex++) {
+            for(int ey = -VISION_GRID_RADIUS; ey <= VISION_GRID_RADIUS; ey++) {
+                final int idx = (ex + VISION_GRID_RADIUS) * offsetSide + (ey + VISION_GRID_RADIUS);
+                for(int k = 0; k < 8; k++) {
+                    final int dx = ex - DX[k];
+                    final int dy = ey - DY[k];
+                    if(dx * dx + dy * dy <= ATTACK_RADIUS_SQUARED) {
+                        reach[idx] += 1L << (8 * k);
+                    }
+                }
+                for(int cx = -GRID_RADIUS; cx <= GRID_RADIUS; cx++) {
+                    for(int cy = -GRID_RADIUS; cy <= GRID_RADIUS; cy++) {
+                        final int c = (cx + GRID_RADIUS) * gridSide + (cy + GRID_RADIUS);
+                        final int dx = ex - cx;
+                        final int dy = ey - cy;
+                        proximity[c / 4][idx] |= (long)reciprocal(dx * dx + dy * dy) << (16 * (c % 4));
+                    }
+                }
+            }
+        }
+        line("    /**");
+        line("     * The tables below are indexed by the vision grid cell of an enemy at offset (ex, ey) from the");
+        line("     * threat grid center, which is also the vision grid center.");
+        line("     * For REACH_COUNTS, byte k is 1 if the enemy could attack the tile next to the center in direction k.");
+        line("     * Summing these over the enemies counts the attackers of all eight tiles at once.");
+        line("     */");
+        emitLongTable("REACH_COUNTS", reach, 4);
+        line("");
+        line("    static final int RECIPROCAL_SHIFT = %d;", RECIPROCAL_SHIFT);
+        line("    static final int NUM_PROXIMITY_LANES = %d;", numProximityLanes);
+        line("    /**");
+        line("     * For PROXIMITY_j, 16 bit lane i holds (1 << RECIPROCAL_SHIFT) / distanceSquared from cell 4 * j + i to the");
+        line("     * enemy, rounded, or %d if the enemy stands on it.  The lanes cannot overflow for any number of", RECIPROCAL_OF_ZERO);
+        line("     * enemies we can see, since only one of them can stand on a given cell.");
+        line("     */");
+        for(int j = 0; j < numProximityLanes; j++) {
+            emitLongTable("PROXIMITY_" + j, proximity[j], 4);
+        }
+        line("");
+
+        final int[] scalar = new int[2 * SCALAR_MAX_EXPONENT + 1];
+        for(int e = -SCALAR_MAX_EXPONENT; e <= SCALAR_MAX_EXPONENT; e++) {
+            scalar[e + SCALAR_MAX_EXPONENT] = (int)Math.round(Math.pow(1.2, e) * (1 << SCALAR_SHIFT));
+        }
+        line("    static final int SCALAR_SHIFT = %d;", SCALAR_SHIFT);
+        line("    static final int SCALAR_MAX_EXPONENT = %d;", SCALAR_MAX_EXPONENT);
+        line("    /** 1.2^e in fixed point with SCALAR_SHIFT fraction bits, at index e + SCALAR_MAX_EXPONENT. */");
+        emitIntTable("COMBAT_NUMBERS_SCALAR", scalar, 10);
+        line("");
+        line("    /** 1.2^e in fixed point, with e clamped to [-SCALAR_MAX_EXPONENT, SCALAR_MAX_EXPONENT]. */");
+        line("    static int combatNumbersScalar(int e) {");
+        line("        if(e > SCALAR_MAX_EXPONENT) {");
+        line("            e = SCALAR_MAX_EXPONENT;");
+        line("        } else if(e < -SCALAR_MAX_EXPONENT) {");
+        line("            e = -SCALAR_MAX_EXPONENT;");
+        line("        }");
+        line("        return COMBAT_NUMBERS_SCALAR[e + SCALAR_MAX_EXPONENT];");
+        line("    }");
+        line("}");
+        System.out.print(out);
+    }
+}
@@ -0,0 +1,343 @@
+package waffle;
+
+import battlecode.common.*;
+
+// GENERATED by scripts/GenerateNeighbors.java.  Do not edit by hand; change the generator and rerun it.
+final class Neighbors {
+
+    /** Bit k is set if rc.canMove(MOVEMENT_DIRECTIONS[k]). */
+    static int computeCanMoveMask(RobotController rc) {
+        int mask = 0;
+        if(rc.canMove(Direction.NORTH)) {
+            mask |= 1;
+        }
+        if(rc.canMove(Direction.NORTHEAST)) {
+            mask |= 2;
+        }
+        if(rc.canMove(Direction.EAST)) {
+            mask |= 4;
+        }
+        if(rc.canMove(Direction.SOUTHEAST)) {
+            mask |= 8;
+        }
+        if(rc.canMove(Direction.SOUTH)) {
+            mask |= 16;
+        }
+        if(rc.canMove(Direction.SOUTHWEST)) {
+            mask |= 32;
+        }
+        if(rc.canMove(Direction.WEST)) {
+            mask |= 64;
+        }
+        if(rc.canMove(Direction.NORTHWEST)) {
+            mask |= 128;
+        }
+        return mask;
+    }
+
+    /** Bit k is set if the neighbor of (x, y) in MOVEMENT_DIRECTIONS[k] is on the map. */
+    static int computeOnTheMapMask(int x, int y, int mapWidth, int mapHeight) {
+        int mask = 255;
+        if(x == 0) {
+            mask &= ~224;
+        } else if(x == mapWidth - 1) {
+            mask &= ~14;
+        }
+        if(y == 0) {
+            mask &= ~56;
+        } else if(y == mapHeight - 1) {
+            mask &= ~131;
+        }
+        return mask;
+    }
+
+    /**
+     * Among the neighbors of (x, y) allowed by validMask whose grid value is nonzero, finds the one with
+     * the smallest (value & valueMask) that is less than bound.  Ties go to the first neighbor in MOVEMENT_DIRECTIONS order.
+     * Returns ((value & valueMask) << 3) | directionIndex, or -1 if there is no such neighbor.
+     */
+    static int findMinNeighbor(int[][] grid, int x, int y, int validMask, int valueMask, int bound) {
+        int best = bound;
+        int bestIdx = -1;
+        int v;
+        if((validMask & 1) != 0) {
+            v = grid[x][y + 1];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 0;
+            }
+        }
+        if((validMask & 2) != 0) {
+            v = grid[x + 1][y + 1];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 1;
+            }
+        }
+        if((validMask & 4) != 0) {
+            v = grid[x + 1][y];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 2;
+            }
+        }
+        if((validMask & 8) != 0) {
+            v = grid[x + 1][y - 1];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 3;
+            }
+        }
+        if((validMask & 16) != 0) {
+            v = grid[x][y - 1];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 4;
+            }
+        }
+        if((validMask & 32) != 0) {
+            v = grid[x - 1][y - 1];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 5;
+            }
+        }
+        if((validMask & 64) != 0) {
+            v = grid[x - 1][y];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 6;
+            }
+        }
+        if((validMask & 128) != 0) {
+            v = grid[x - 1][y + 1];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 7;
+            }
+        }
+        return bestIdx == -1 ? -1 : (best << 3) | bestIdx;
+    }
+
+    /**
+     * Among the neighbors of (x, y) allowed by validMask whose grid value is nonzero, finds the one with
+     * the smallest (value & valueMask) that is less than bound.  Ties go to the last neighbor in MOVEMENT_DIRECTIONS order.
+     * Returns ((value & valueMask) << 3) | directionIndex, or -1 if there is no such neighbor.
+     */
+    static int findMinNeighborLastTie(int[][] grid, int x, int y, int validMask, int valueMask, int bound) {
+        int best = bound;
+        int bestIdx = -1;
+        int v;
+        if((validMask & 128) != 0) {
+            v = grid[x - 1][y + 1];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 7;
+            }
+        }
+        if((validMask & 64) != 0) {
+            v = grid[x - 1][y];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 6;
+            }
+        }
+        if((validMask & 32) != 0) {
+            v = grid[x - 1][y - 1];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 5;
+            }
+        }
+        if((validMask & 16) != 0) {
+            v = grid[x][y - 1];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 4;
+            }
+        }
+        if((validMask & 8) != 0) {
+            v = grid[x + 1][y - 1];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 3;
+            }
+        }
+        if((validMask & 4) != 0) {
+            v = grid[x + 1][y];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 2;
+            }
+        }
+        if((validMask & 2) != 0) {
+            v = grid[x + 1][y + 1];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 1;
+            }
+        }
+        if((validMask & 1) != 0) {
+            v = grid[x][y + 1];
+            if(v != 0 && (v & valueMask) < best) {
+                best = v & valueMask;
+                bestIdx = 0;
+            }
+        }
+        return bestIdx == -1 ? -1 : (best << 3) | bestIdx;
+    }
+
+    /**
+     * Among the neighbors of (x, y) allowed by validMask, finds the one nearest to (destX, destY).
+     * Ties go to the first in MOVEMENT_DIRECTIONS order.
+     * Returns (distanceSquared << 3) | directionIndex, or -1 if validMask is 0.
+     */
+    static int findNeighborNearestTo(int x, int y, int destX, int destY, int validMask) {
+        final int dx = x - destX;
+        final int dy = y - destY;
+        int best = Integer.MAX_VALUE;
+        int bestIdx = -1;
+        int d;
+        if((validMask & 1) != 0) {
+            d = dx * dx + (dy + 1) * (dy + 1);
+            if(d < best) {
+                best = d;
+                bestIdx = 0;
+            }
+        }
+        if((validMask & 2) != 0) {
+            d = (dx + 1) * (dx + 1) + (dy + 1) * (dy + 1);
+            if(d < best) {
+                best = d;
+                bestIdx = 1;
+            }
+        }
+        if((validMask & 4) != 0) {
+            d = (dx + 1) * (dx + 1) + dy * dy;
+            if(d < best) {
+                best = d;
+                bestIdx = 2;
+            }
+        }
+        if((validMask & 8) != 0) {
+            d = (dx + 1) * (dx + 1) + (dy - 1) * (dy - 1);
+            if(d < best) {
+                best = d;
+                bestIdx = 3;
+            }
+        }
+        if((validMask & 16) != 0) {
+            d = dx * dx + (dy - 1) * (dy - 1);
+            if(d < best) {
+                best = d;
+                bestIdx = 4;
+            }
+        }
+        if((validMask & 32) != 0) {
+            d = (dx - 1) * (dx - 1) + (dy - 1) * (dy - 1);
+            if(d < best) {
+                best = d;
+                bestIdx = 5;
+            }
+        }
+        if((validMask & 64) != 0) {
+            d = (dx - 1) * (dx - 1) + dy * dy;
+            if(d < best) {
+                best = d;
+                bestIdx = 6;
+            }
+        }
+        if((validMask & 128) != 0) {
+            d = (dx - 1) * (dx - 1) + (dy + 1) * (dy + 1);
+            if(d < best) {
+                best = d;
+                bestIdx = 7;
+            }
+        }
+        return bestIdx == -1 ? -1 : (best << 3) | bestIdx;
+    }
+
+    /**
+     * Bit k is set if terrain says the neighbor of (x, y) in MOVEMENT_DIRECTIONS[k] can take a stun trap that no
+     * other stun trap already covers: it is sensed, passable, trap free, and has no stun trap next to it
+     * orthogonally.  The block of tiles within 2 of (x, y), less its corners, is read once; off the map reads as 0.
+     */
+    static int computeStunTrapSiteMask(int[][] terrain, int x, int y, int mapWidth, int mapHeight) {
+        final boolean hasXM2 = x >= 2;
+        final boolean hasYM2 = y >= 2;
+        final boolean hasXM1 = x >= 1;
+        final boolean hasYM1 = y >= 1;
+        final boolean hasXP1 = x + 1 < mapWidth;
+        final boolean hasYP1 = y + 1 < mapHeight;
+        final boolean hasXP2 = x + 2 < mapWidth;
+        final boolean hasYP2 = y + 2 < mapHeight;
+        final int[] colM2 = hasXM2 ? terrain[x - 2] : null;
+        final int[] colM1 = hasXM1 ? terrain[x - 1] : null;
+        final int[] colP0 = terrain[x];
+        final int[] colP1 = hasXP1 ? terrain[x + 1] : null;
+        final int[] colP2 = hasXP2 ? terrain[x + 2] : null;
+        final int tM2M1 = hasXM2 && hasYM1 ? colM2[y - 1] : 0;
+        final int tM2P0 = hasXM2 ? colM2[y] : 0;
+        final int tM2P1 = hasXM2 && hasYP1 ? colM2[y + 1] : 0;
+        final int tM1M2 = hasXM1 && hasYM2 ? colM1[y - 2] : 0;
+        final int tM1M1 = hasXM1 && hasYM1 ? colM1[y - 1] : 0;
+        final int tM1P0 = hasXM1 ? colM1[y] : 0;
+        final int tM1P1 = hasXM1 && hasYP1 ? colM1[y + 1] : 0;
+        final int tM1P2 = hasXM1 && hasYP2 ? colM1[y + 2] : 0;
+        final int tP0M2 = hasYM2 ? colP0[y - 2] : 0;
+        final int tP0M1 = hasYM1 ? colP0[y - 1] : 0;
+        final int tP0P0 = colP0[y];
+        final int tP0P1 = hasYP1 ? colP0[y + 1] : 0;
+        final int tP0P2 = hasYP2 ? colP0[y + 2] : 0;
+        final int tP1M2 = hasXP1 && hasYM2 ? colP1[y - 2] : 0;
+        final int tP1M1 = hasXP1 && hasYM1 ? colP1[y - 1] : 0;
+        final int tP1P0 = hasXP1 ? colP1[y] : 0;
+        final int tP1P1 = hasXP1 && hasYP1 ? colP1[y + 1] : 0;
+        final int tP1P2 = hasXP1 && hasYP2 ? colP1[y + 2] : 0;
+        final int tP2M1 = hasXP2 && hasYM1 ? colP2[y - 1] : 0;
+        final int tP2P0 = hasXP2 ? colP2[y] : 0;
+        final int tP2P1 = hasXP2 && hasYP1 ? colP2[y + 1] : 0;
+        int mask = 0;
+        if((tP0P1 & (RobotPlayer.TERRAIN_SENSED_BIT | RobotPlayer.TERRAIN_IMPASSABLE_BITS | RobotPlayer.TERRAIN_TRAP_BIT)) == RobotPlayer.TERRAIN_SENSED_BIT
+            && ((tP0P1 | tM1P1 | tP1P1 | tP0P0 | tP0P2) & RobotPlayer.TERRAIN_STUN_TRAP_BIT) == 0
+        ) {
+            mask |= 1;
+        }
+        if((tP1P1 & (RobotPlayer.TERRAIN_SENSED_BIT | RobotPlayer.TERRAIN_IMPASSABLE_BITS | RobotPlayer.TERRAIN_TRAP_BIT)) == RobotPlayer.TERRAIN_SENSED_BIT
+            && ((tP1P1 | tP0P1 | tP2P1 | tP1P0 | tP1P2) & RobotPlayer.TERRAIN_STUN_TRAP_BIT) == 0
+        ) {
+            mask |= 2;
+        }
+        if((tP1P0 & (RobotPlayer.TERRAIN_SENSED_BIT | RobotPlayer.TERRAIN_IMPASSABLE_BITS | RobotPlayer.TERRAIN_TRAP_BIT)) == RobotPlayer.TERRAIN_SENSED_BIT
+            && ((tP1P0 | tP0P0 | tP2P0 | tP1M1 | tP1P1) & RobotPlayer.TERRAIN_STUN_TRAP_BIT) == 0
+        ) {
+            mask |= 4;
+        }
+        if((tP1M1 & (RobotPlayer.TERRAIN_SENSED_BIT | RobotPlayer.TERRAIN_IMPASSABLE_BITS | RobotPlayer.TERRAIN_TRAP_BIT)) == RobotPlayer.TERRAIN_SENSED_BIT
+            && ((tP1M1 | tP0M1 | tP2M1 | tP1M2 | tP1P0) & RobotPlayer.TERRAIN_STUN_TRAP_BIT) == 0
+        ) {
+            mask |= 8;
+        }
+        if((tP0M1 & (RobotPlayer.TERRAIN_SENSED_BIT | RobotPlayer.TERRAIN_IMPASSABLE_BITS | RobotPlayer.TERRAIN_TRAP_BIT)) == RobotPlayer.TERRAIN_SENSED_BIT
+            && ((tP0M1 | tM1M1 | tP1M1 | tP0M2 | tP0P0) & RobotPlayer.TERRAIN_STUN_TRAP_BIT) == 0
+        ) {
+            mask |= 16;
+        }
+        if((tM1M1 & (RobotPlayer.TERRAIN_SENSED_BIT | RobotPlayer.TERRAIN_IMPASSABLE_BITS | RobotPlayer.TERRAIN_TRAP_BIT)) == RobotPlayer.TERRAIN_SENSED_BIT
+            && ((tM1M1 | tM2M1 | tP0M1 | tM1M2 | tM1P0) & RobotPlayer.TERRAIN_STUN_TRAP_BIT) == 0
+        ) {
+            mask |= 32;
+        }
+        if((tM1P0 & (RobotPlayer.TERRAIN_SENSED_BIT | RobotPlayer.TERRAIN_IMPASSABLE_BITS | RobotPlayer.TERRAIN_TRAP_BIT)) == RobotPlayer.TERRAIN_SENSED_BIT
+            && ((tM1P0 | tM2P0 | tP0P0 | tM1M1 | tM1P1) & RobotPlayer.TERRAIN_STUN_TRAP_BIT) == 0
+        ) {
+            mask |= 64;
+        }
+        if((tM1P1 & (RobotPlayer.TERRAIN_SENSED_BIT | RobotPlayer.TERRAIN_IMPASSABLE_BITS | RobotPlayer.TERRAIN_TRAP_BIT)) == RobotPlayer.TERRAIN_SENSED_BIT
+            && ((tM1P1 | tM2P1 | tP0P1 | tM1P0 | tM1P2) & RobotPlayer.TERRAIN_STUN_TRAP_BIT) == 0
+        ) {
+            mask |= 128;
+        }
+        return mask;
+    }
+}
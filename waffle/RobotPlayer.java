@@ -0,0 +1,2740 @@
+package waffle;
+
+import battlecode.common.*;
+
+import java.util.Random;
+
+public strictfp class RobotPlayer {
+
+    static Random rng;
+
+    static final int ADJACENT_DISTANCE_SQUARED = 2;
+
+
+    static final int MESSAGE_BUS_HEADER_INDEX = 0;
+    static final int MESSAGE_BUS_FIRST_SLOT_INDEX = 1 + MESSAGE_BUS_HEADER_INDEX;
+    static final int MESSAGE_BUS_NUM_SLOTS = 16; // must divide 1 << 16
+    static final int MESSAGE_BUS_WORDS_PER_SLOT = 2;
+
+    static final int FIRST_ENEMY_FLAG_ID_INDEX = MESSAGE_BUS_FIRST_SLOT_INDEX + MESSAGE_BUS_NUM_SLOTS * MESSAGE_BUS_WORDS_PER_SLOT;
+    static final int FIRST_ENEMY_FLAG_LOC_INDEX = 1 + FIRST_ENEMY_FLAG_ID_INDEX;
+    static final int FIRST_ENEMY_FLAG_ROUND_INDEX = 1 + FIRST_ENEMY_FLAG_LOC_INDEX;
+    static final int ENEMY_FLAG_INDEX_OFFSET = 3; // This must be the number of indexes used for each flag, so if you add another one, you must update this.
+    static final int ENEMY_FLAG_TABLE_VERSION_INDEX = FIRST_ENEMY_FLAG_ID_INDEX + GameConstants.NUMBER_FLAGS * ENEMY_FLAG_INDEX_OFFSET;
+
+    static final int MY_INF = 12345; // larger than maximum number of MapLocations on the map
+
+    static final double SQRT_VISION_RADIUS = Math.sqrt(GameConstants.VISION_RADIUS_SQUARED);
+
+    static int roundNumAtStartOfIteration = 0;
+
+    static MapLocation lastSpawLocation = null;
+
+    // daMap holds one packed int per tile, 0 meaning that we have no data for the tile:
+    //   bits 0-13:  numSteps back to the nearest ally spawn tile we have spawned at, in this or
+    //               an earlier life, along tiles we have stood on (MY_INF if unknown)
+    //   bits 14-17: index into PATHING_STEP_DIRECTIONS of the direction to step in
+    //   bit 18:     set once we have stood on (and therefore sensed) the tile
+    static final int PATHING_NUM_STEPS_MASK = (1 << 14) - 1;
+    static final int PATHING_STEP_DIR_SHIFT = 14;
+    static final int PATHING_STEP_DIR_MASK = 0b1111;
+    static final int PATHING_SENSED_BIT = 1 << 18;
+    static final int PATHING_CENTER_DIR_INDEX = 8;
+    static final int PATHING_NO_DIR_INDEX = 9;
+    static final Direction[] PATHING_STEP_DIRECTIONS = {
+        Direction.NORTH,
+        Direction.NORTHEAST,
+        Direction.EAST,
+        Direction.SOUTHEAST,
+        Direction.SOUTH,
+        Direction.SOUTHWEST,
+        Direction.WEST,
+        Direction.NORTHWEST,
+        Direction.CENTER,
+        null,
+    };
+    static int packPathingData(int stepDirIndex, int numSteps) {
+        return PATHING_SENSED_BIT | (stepDirIndex << PATHING_STEP_DIR_SHIFT) | numSteps;
+    }
+    static Direction getPathingStepDir(int pathingData) {
+        return PATHING_STEP_DIRECTIONS[(pathingData >> PATHING_STEP_DIR_SHIFT) & PATHING_STEP_DIR_MASK];
+    }
+    static int[][] daMap = null;
+
+    /**
+     * A set of map tiles backed by a bitset, one bit per tile.
+     * Each word also has a generation stamp, and a word whose stamp is not the current
+     * generation counts as empty, so clear() is O(1) instead of touching every word.
+     */
+    static class TileSet {
+        final long[] words;
+        final int[] wordGenerations;
+        final int mapHeight;
+        int generation = 1;
+        TileSet(int mapWidth, int mapHeight) {
+            this.mapHeight = mapHeight;
+            this.words = new long[(mapWidth * mapHeight + 63) >> 6];
+            this.wordGenerations = new int[this.words.length];
+        }
+        boolean contains(MapLocation ml) {
+            final int idx = ml.x * mapHeight + ml.y;
+            final int w = idx >> 6;
+            return wordGenerations[w] == generation && (words[w] & (1L << idx)) != 0;
+        }
+        void add(MapLocation ml) {
+            final int idx = ml.x * mapHeight + ml.y;
+            final int w = idx >> 6;
+            if(wordGenerations[w] != generation) {
+                wordGenerations[w] = generation;
+                words[w] = 0;
+            }
+            words[w] |= 1L << idx;
+        }
+        void clear() {
+            generation++;
+        }
+    }
+
+    /** Array containing all the possible movement directions. */
+    static final Direction[] MOVEMENT_DIRECTIONS = {
+        Direction.NORTH,
+        Direction.NORTHEAST,
+        Direction.EAST,
+        Direction.SOUTHEAST,
+        Direction.SOUTH,
+        Direction.SOUTHWEST,
+        Direction.WEST,
+        Direction.NORTHWEST,
+    };
+    @SuppressWarnings("unused")
+    public static void run(RobotController rc) throws GameActionException {
+        rng = new Random(rc.getID());
+        myTeam = rc.getTeam();
+        enemyTeam = myTeam.opponent();
+        terrainMap = new int[rc.getMapWidth()][rc.getMapHeight()];
+        symmetryCheckQueue = new int[rc.getMapWidth() * rc.getMapHeight()]; // before the first tile is sensed
+        daMap = new int[rc.getMapWidth()][rc.getMapHeight()];
+        initNewlyVisibleOffsets();
+        bugMemory = new TileSet(rc.getMapWidth(), rc.getMapHeight());
+        seenBroadcastLocs = new TileSet(rc.getMapWidth(), rc.getMapHeight());
+        initExploreSectors(rc);
+        registerBackgroundTask(TASK_SYMMETRY);
+
+        // You can also use indicators to save debug notes in replays.
+        rc.setIndicatorString("Hello world!");
+
+        while (true) {
+            // Try/catch blocks stop unhandled exceptions, which cause your robot to explode.
+            try {
+                roundNumAtStartOfIteration = rc.getRoundNum();
+                startProfiledTurn(rc);
+                int phaseStart = Clock.getBytecodeNum();
+
+                // Make sure you spawn your robot in before you attempt to take any actions!
+                // Robots not spawned in do not have vision of any tiles and cannot perform any actions.
+                if (!rc.isSpawned()){
+                    final MapLocation locToTry = pickSpawnLocation(rc);
+                    if (locToTry != null) {
+                        rc.spawn(locToTry);
+                        lastSpawLocation = locToTry;
+                        // Every spawn tile we have used is a root, so trails from earlier lives stay valid.
+                        daMap[locToTry.x][locToTry.y] = packPathingData(PATHING_CENTER_DIR_INDEX, 0);
+                    }
+                    readMessageBus(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_SPAWN, phaseStart);
+                } else {
+                    final int mandatoryReserve = getMandatoryPhasesBytecodeEstimate();
+                    updateData(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_UPDATE_DATA, phaseStart);
+                    phaseStart = runDeferredPhaseIfPending(rc, PHASE_UPDATE_PATHING_DATA, mandatoryReserve, phaseStart);
+                    phaseStart = runDeferrablePhase(rc, PHASE_BROADCAST_DATA, mandatoryReserve, phaseStart);
+                    phaseStart = runDeferrablePhase(rc, PHASE_FLAG_KNOWLEDGE, mandatoryReserve, phaseStart);
+                    callForHelpIfEnemiesApproachFlag(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_CALL_FOR_HELP, phaseStart);
+
+                    pickupEnemyFlags(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_PICKUP_FLAGS, phaseStart);
+
+                    fill(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_FILL, phaseStart);
+
+                    buildDefensiveTraps(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_DEFENSIVE_TRAPS, phaseStart);
+
+                    attack(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_ATTACK, phaseStart);
+
+                    move(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_MOVE, phaseStart);
+
+                    buildCombatTraps(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_COMBAT_TRAPS, phaseStart);
+
+                    pickupEnemyFlags(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_PICKUP_FLAGS, phaseStart);
+
+                    attack(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_ATTACK, phaseStart);
+
+                    heal(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_HEAL, phaseStart);
+
+                    doGlobalUpgrades(rc);
+                    phaseStart = endProfiledPhase(rc, PHASE_GLOBAL_UPGRADES, phaseStart);
+
+                    // The actions are done, so whatever was deferred earlier this turn gets another chance.
+                    phaseStart = runDeferredPhaseIfPending(rc, PHASE_BROADCAST_DATA, 0, phaseStart);
+                    phaseStart = runDeferredPhaseIfPending(rc, PHASE_FLAG_KNOWLEDGE, 0, phaseStart);
+                    deferPathingDataUpdate(myLocation);
+                    phaseStart = runDeferrablePhase(rc, PHASE_UPDATE_PATHING_DATA, 0, phaseStart);
+                }
+
+                loadScoringTables();
+                phaseStart = runBackgroundTasks(rc, phaseStart);
+
+                if(rc.getRoundNum() != roundNumAtStartOfIteration) {
+                    System.out.println("ROUND NUM INCREASED FROM " + roundNumAtStartOfIteration + " TO " + rc.getRoundNum());
+                }
+
+                endProfiledTurn(rc);
+
+            } catch (GameActionException e) {
+                // Oh no! It looks like we did something illegal in the Battlecode world. You should
+                // handle GameActionExceptions judiciously, in case unexpected events occur in the game
+                // world. Remember, uncaught exceptions cause your robot to explode!
+                System.out.println("GameActionException");
+                e.printStackTrace();
+
+            } catch (Exception e) {
+                // Oh no! It looks like our code tried to do something bad. This isn't a
+                // GameActionException, so it's more likely to be a bug in our code.
+                System.out.println("Exception");
+                e.printStackTrace();
+
+            } finally {
+                // Signify we've done everything we want to do, thereby ending our turn.
+                // This will make our code wait until the next turn, and then perform this loop again.
+                Clock.yield();
+            }
+            // End of loop: go back to the top. Clock.yield() has ended, so it's time for another turn!
+        }
+
+        // Your code should never reach here (unless it's intentional)! Self-destruction imminent...
+    }
+
+    // Per-phase bytecode profiler.
+    // Everything is kept in static int arrays so that measuring does not allocate.
+    // The only expensive part is building the summary string, which happens once every profilerDumpInterval rounds.
+    // It is a compile-time switch, off in the bot we ship, so that a deployed turn pays nothing for it.
+    // With it off none of the counters below are kept, phaseDeferrals included; the scheduler itself
+    // only needs phaseBytecodeEstimates.
+    // The offline harness builds with it on, turns the dumps off by raising profilerDumpInterval,
+    // then reads the arrays directly.
+    static final boolean PROFILER_ENABLED = false;
+    static int profilerDumpInterval = 250;
+    static final int PROFILER_DUMP_MIN_BYTECODES_LEFT = 3000;
+    static final int PHASE_TURN = 0;
+    static final int PHASE_SPAWN = 1;
+    static final int PHASE_UPDATE_DATA = 2;
+    static final int PHASE_BROADCAST_DATA = 3;
+    static final int PHASE_FLAG_KNOWLEDGE = 4;
+    static final int PHASE_CALL_FOR_HELP = 5;
+    static final int PHASE_PICKUP_FLAGS = 6;
+    static final int PHASE_FILL = 7;
+    static final int PHASE_DEFENSIVE_TRAPS = 8;
+    static final int PHASE_ATTACK = 9;
+    static final int PHASE_MOVE = 10;
+    static final int PHASE_COMBAT_TRAPS = 11;
+    static final int PHASE_HEAL = 12;
+    static final int PHASE_GLOBAL_UPGRADES = 13;
+    static final int PHASE_UPDATE_PATHING_DATA = 14;
+    static final int PHASE_SPAWN_BFS = 15;
+    static final int PHASE_PATH_SEARCH = 16;
+    static final int PHASE_SYMMETRY = 17;
+    static final int PHASE_FLAG_BFS = 18;
+    static final int NUM_PHASES = 19;
+    static final String[] PHASE_NAMES = {
+        "turn", "spawn", "upd", "bcast", "flagKn", "help", "pickup", "fill",
+        "defTrap", "atk", "move", "cmbTrap", "heal", "upgr", "path", "spawnBfs",
+        "astar", "symm", "flagBfs",
+    };
+    static final int[] phaseCalls = new int[NUM_PHASES];
+    static final int[] phaseTotalBytecodes = new int[NUM_PHASES];
+    static final int[] phaseMinBytecodes = new int[NUM_PHASES];
+    static final int[] phaseMaxBytecodes = new int[NUM_PHASES];
+    static final int[] phaseOverruns = new int[NUM_PHASES];
+    static final int[] phaseDeferrals = new int[NUM_PHASES];
+    static int profilerBytecodeLimit = 0;
+    static int profilerTurnStartBytecodeNum = 0;
+    static int profilerTurnStartRound = 0;
+    static int profilerPhaseStartRound = 0;
+    static int profilerRoundLastDumped = 0;
+    static void startProfiledTurn(RobotController rc) {
+        if(PROFILER_ENABLED) {
+            profilerTurnStartBytecodeNum = Clock.getBytecodeNum();
+            profilerBytecodeLimit = profilerTurnStartBytecodeNum + Clock.getBytecodesLeft();
+            profilerTurnStartRound = profilerPhaseStartRound = rc.getRoundNum();
+            if(TRACE_ENABLED) {
+                // Cleared here rather than after printing, since a turn that throws never prints.
+                for(int phase = 0; phase < NUM_PHASES; phase++) {
+                    tracePhaseBytecodes[phase] = 0;
+                }
+                tracePhaseMask = 0;
+                tracePhaseOverrunMask = 0;
+            }
+        }
+        moveBranches = 0;
+    }
+    static void recordProfiledPhase(int phase, int startBytecodeNum, int startRound, int endBytecodeNum, int endRound) {
+        int used = endBytecodeNum - startBytecodeNum;
+        if(endRound != startRound) {
+            // The phase ran past the end of the turn, so the bytecode counter was reset in the middle of it.
+            used += (endRound - startRound) * profilerBytecodeLimit;
+            phaseOverruns[phase]++;
+        }
+        updatePhaseBytecodeEstimate(phase, used);
+        if(phaseCalls[phase] == 0 || used < phaseMinBytecodes[phase]) {
+            phaseMinBytecodes[phase] = used;
+        }
+        if(used > phaseMaxBytecodes[phase]) {
+            phaseMaxBytecodes[phase] = used;
+        }
+        phaseCalls[phase]++;
+        phaseTotalBytecodes[phase] += used;
+        if(TRACE_ENABLED) {
+            tracePhaseBytecodes[phase] += used;
+            tracePhaseMask |= 1 << phase;
+            if(endRound != startRound) {
+                tracePhaseOverrunMask |= 1 << phase;
+            }
+        }
+    }
+    /**
+     * Returns the bytecode num to use as the start of the next phase,
+     * so that the cost of the profiler itself is not charged to any phase.
+     */
+    static int endProfiledPhase(RobotController rc, int phase, int phaseStartBytecodeNum) {
+        if(PROFILER_ENABLED) {
+            final int roundNum = rc.getRoundNum();
+            recordProfiledPhase(phase, phaseStartBytecodeNum, profilerPhaseStartRound, Clock.getBytecodeNum(), roundNum);
+            profilerPhaseStartRound = roundNum;
+        } else {
+            // The scheduler needs the estimates even when nobody is looking at the profile.
+            updatePhaseBytecodeEstimate(phase, Clock.getBytecodeNum() - phaseStartBytecodeNum);
+        }
+        return Clock.getBytecodeNum();
+    }
+    static void endProfiledTurn(RobotController rc) {
+        if(PROFILER_ENABLED) {
+            final int roundNum = rc.getRoundNum();
+            recordProfiledPhase(PHASE_TURN, profilerTurnStartBytecodeNum, profilerTurnStartRound, Clock.getBytecodeNum(), roundNum);
+            if(TRACE_ENABLED) {
+                traceTurn(rc);
+            }
+            if(roundNum - profilerRoundLastDumped >= profilerDumpInterval
+                && Clock.getBytecodesLeft() >= PROFILER_DUMP_MIN_BYTECODES_LEFT
+            ) {
+                dumpProfile(rc);
+                profilerRoundLastDumped = roundNum;
+            }
+        }
+    }
+    /**
+     * Prints one line of name:calls/min/avg/max/overruns/deferrals for every phase that ran or was deferred,
+     * then resets the counters so that each line covers one dump interval.
+     */
+    static void dumpProfile(RobotController rc) {
+        StringBuilder sb = new StringBuilder("PROF r");
+        sb.append(rc.getRoundNum());
+        for(int phase = 0; phase < NUM_PHASES; phase++) {
+            final int calls = phaseCalls[phase];
+            if(calls != 0 || phaseDeferrals[phase] != 0) {
+                sb.append(' ').append(PHASE_NAMES[phase])
+                    .append(':').append(calls)
+                    .append('/').append(phaseMinBytecodes[phase])
+                    .append('/').append(calls == 0 ? 0 : phaseTotalBytecodes[phase] / calls)
+                    .append('/').append(phaseMaxBytecodes[phase])
+                    .append('/').append(phaseOverruns[phase])
+                    .append('/').append(phaseDeferrals[phase]);
+            }
+            phaseCalls[phase] = 0;
+            phaseTotalBytecodes[phase] = 0;
+            phaseMinBytecodes[phase] = 0;
+            phaseMaxBytecodes[phase] = 0;
+            phaseOverruns[phase] = 0;
+            phaseDeferrals[phase] = 0;
+        }
+        System.out.println(sb.toString());
+    }
+
+    // Per-turn trace for scripts/AnalyzeTraces.java, behind a compile-time switch because building the
+    // line costs several hundred bytecodes.  It needs PROFILER_ENABLED.  Every turn prints one line
+    //     TR <id> <round> <turn bytecodes> <turns skipped> <move branches> <phase>:<bytecodes> ...
+    // The move branches are the MOVE_BRANCH_NAMES that move entered this turn, joined by '+', or '-' for none.
+    // Only the phases that ran are listed, and a phase that ran past the end of the turn ends in '!',
+    // as does the turn bytecodes field.  A turn without TRACE_MIN_BYTECODES_LEFT to spare is not printed,
+    // and is counted in the next line instead.
+    static final boolean TRACE_ENABLED = false;
+    static final int TRACE_MIN_BYTECODES_LEFT = 1000; // a line costs up to about 700
+    static final int[] tracePhaseBytecodes = new int[NUM_PHASES];
+    static int tracePhaseMask = 0;
+    static int tracePhaseOverrunMask = 0;
+    static int traceSkippedTurns = 0;
+    static void traceTurn(RobotController rc) {
+        if(Clock.getBytecodesLeft() < TRACE_MIN_BYTECODES_LEFT) {
+            traceSkippedTurns++;
+            return;
+        }
+        final StringBuilder sb = new StringBuilder("TR ");
+        sb.append(rc.getID())
+            .append(' ').append(roundNumAtStartOfIteration)
+            .append(' ').append(tracePhaseBytecodes[PHASE_TURN]);
+        if((tracePhaseOverrunMask & (1 << PHASE_TURN)) != 0) {
+            sb.append('!');
+        }
+        sb.append(' ').append(traceSkippedTurns).append(' ');
+        if(moveBranches == 0) {
+            sb.append('-');
+        } else {
+            boolean isFirst = true;
+            for(int branch = 0; branch < NUM_MOVE_BRANCHES; branch++) {
+                if((moveBranches & (1 << branch)) != 0) {
+                    if(!isFirst) {
+                        sb.append('+');
+                    }
+                    sb.append(MOVE_BRANCH_NAMES[branch]);
+                    isFirst = false;
+                }
+            }
+        }
+        for(int phase = PHASE_TURN + 1; phase < NUM_PHASES; phase++) {
+            if((tracePhaseMask & (1 << phase)) != 0) {
+                sb.append(' ').append(PHASE_NAMES[phase]).append(':').append(tracePhaseBytecodes[phase]);
+                if((tracePhaseOverrunMask & (1 << phase)) != 0) {
+                    sb.append('!');
+                }
+            }
+        }
+        System.out.println(sb.toString());
+        traceSkippedTurns = 0;
+    }
+
+    // Turn scheduler.
+    // Mandatory phases (the ones that act) always run.  Deferrable phases are bookkeeping whose
+    // results are still good a turn late, so they only run if the bytecodes left cover their
+    // estimated cost plus the estimated cost of the mandatory phases that are still to come.
+    // A deferred phase stays pending and is retried at the end of the turn and on the next turn.
+    static final int SCHEDULER_SAFETY_MARGIN = 500;
+    static final int[] MANDATORY_PHASES_IN_TURN_ORDER = {
+        PHASE_CALL_FOR_HELP, PHASE_PICKUP_FLAGS, PHASE_FILL, PHASE_DEFENSIVE_TRAPS, PHASE_ATTACK,
+        PHASE_MOVE, PHASE_COMBAT_TRAPS, PHASE_PICKUP_FLAGS, PHASE_ATTACK, PHASE_HEAL, PHASE_GLOBAL_UPGRADES,
+    };
+    // Decaying maximum of the bytecodes each phase has used recently.
+    static final int[] phaseBytecodeEstimates = new int[NUM_PHASES];
+    static final boolean[] isPhasePending = new boolean[NUM_PHASES];
+    static void updatePhaseBytecodeEstimate(int phase, int used) {
+        final int decayed = phaseBytecodeEstimates[phase] - (phaseBytecodeEstimates[phase] >> 3);
+        phaseBytecodeEstimates[phase] = used > decayed ? used : decayed;
+    }
+    static int getMandatoryPhasesBytecodeEstimate() {
+        int total = 0;
+        for(int k = 0; k < MANDATORY_PHASES_IN_TURN_ORDER.length; k++) {
+            total += phaseBytecodeEstimates[MANDATORY_PHASES_IN_TURN_ORDER[k]];
+        }
+        return total;
+    }
+    static int runDeferrablePhase(RobotController rc, int phase, int bytecodesToReserve, int phaseStartBytecodeNum) throws GameActionException {
+        if(Clock.getBytecodesLeft() < phaseBytecodeEstimates[phase] + bytecodesToReserve + SCHEDULER_SAFETY_MARGIN) {
+            isPhasePending[phase] = true;
+            if(PROFILER_ENABLED) {
+                phaseDeferrals[phase]++;
+            }
+            // Let the estimate decay anyway; otherwise one bad turn could keep the phase deferred forever.
+            phaseBytecodeEstimates[phase] -= phaseBytecodeEstimates[phase] >> 3;
+            return phaseStartBytecodeNum;
+        }
+        isPhasePending[phase] = false;
+        switch(phase) {
+            case PHASE_BROADCAST_DATA: manageEnemyFlagBroadcastData(rc); publishSpawnPressure(rc); break;
+            case PHASE_FLAG_KNOWLEDGE: manageEnemyFlagKnowledge(rc); break;
+            case PHASE_UPDATE_PATHING_DATA: updateDeferredPathingData(rc); break;
+            default: assert false : "phase " + phase + " is not deferrable";
+        }
+        return endProfiledPhase(rc, phase, phaseStartBytecodeNum);
+    }
+    static int runDeferredPhaseIfPending(RobotController rc, int phase, int bytecodesToReserve, int phaseStartBytecodeNum) throws GameActionException {
+        if(isPhasePending[phase]) {
+            return runDeferrablePhase(rc, phase, bytecodesToReserve, phaseStartBytecodeNum);
+        }
+        return phaseStartBytecodeNum;
+    }
+
+    // Background tasks are long computations paid for with the bytecodes a turn leaves over.
+    // Anything can register one by setting its bit in pendingBackgroundTasks.  Just before we yield,
+    // the pending tasks get a step each in BACKGROUND_TASK_ORDER, so earlier tasks get the budget first.
+    // Only a flag carrier follows spawnDistanceField, so it runs the spawn BFS ahead of the flag BFS and
+    // everyone else the other way round.
+    // A step works while Clock.getBytecodesLeft() > BACKGROUND_TASK_MIN_BYTECODES_LEFT, keeps its
+    // state in statics so the next step resumes where it stopped, and returns whether work is left.
+    // A task with no work left drops out until it is registered again.
+    static final int TASK_PATH_SEARCH = 0;
+    static final int TASK_SYMMETRY = 1;
+    static final int TASK_SPAWN_BFS = 2;
+    static final int TASK_FLAG_BFS = 3;
+    static final int NUM_BACKGROUND_TASKS = 4;
+    static final int[] BACKGROUND_TASK_PHASES = {PHASE_PATH_SEARCH, PHASE_SYMMETRY, PHASE_SPAWN_BFS, PHASE_FLAG_BFS};
+    static final int[] BACKGROUND_TASK_ORDER = {TASK_PATH_SEARCH, TASK_SYMMETRY, TASK_FLAG_BFS, TASK_SPAWN_BFS};
+    static final int[] CARRIER_BACKGROUND_TASK_ORDER = {TASK_PATH_SEARCH, TASK_SYMMETRY, TASK_SPAWN_BFS, TASK_FLAG_BFS};
+    static final int BACKGROUND_TASK_MIN_BYTECODES_LEFT = 2000;
+    static int pendingBackgroundTasks = 0;
+    static void registerBackgroundTask(int task) {
+        pendingBackgroundTasks |= 1 << task;
+    }
+    static int runBackgroundTasks(RobotController rc, int phaseStartBytecodeNum) throws GameActionException {
+        final int[] order = rc.hasFlag() ? CARRIER_BACKGROUND_TASK_ORDER : BACKGROUND_TASK_ORDER;
+        for(int i = 0;
+            i < NUM_BACKGROUND_TASKS && Clock.getBytecodesLeft() > BACKGROUND_TASK_MIN_BYTECODES_LEFT;
+            i++
+        ) {
+            final int task = order[i];
+            if((pendingBackgroundTasks & (1 << task)) != 0) {
+                final boolean hasWorkLeft;
+                switch(task) {
+                    case TASK_PATH_SEARCH: hasWorkLeft = advancePathSearch(rc); break;
+                    case TASK_SYMMETRY: hasWorkLeft = advanceSymmetryInference(rc); break;
+                    case TASK_FLAG_BFS: hasWorkLeft = advanceEnemyFlagDistanceField(rc); break;
+                    case TASK_SPAWN_BFS: hasWorkLeft = advanceSpawnDistanceField(rc); break;
+                    default: hasWorkLeft = false; assert false : "task " + task + " does not exist";
+                }
+                if(!hasWorkLeft) {
+                    pendingBackgroundTasks &= ~(1 << task);
+                }
+                phaseStartBytecodeNum = endProfiledPhase(rc, BACKGROUND_TASK_PHASES[task], phaseStartBytecodeNum);
+            }
+        }
+        return phaseStartBytecodeNum;
+    }
+
+    static int roundLastAttacked = 0;
+    /**
+     * PRECONDITION: canAttack must have returned true for this locToAttack
+     */
+    static void attackAndUpdateMyVariables(RobotController rc, MapLocation locToAttack) throws GameActionException {
+        rc.attack(locToAttack);
+        roundLastAttacked = roundNumAtStartOfIteration;
+    }
+    static void attack(RobotController rc) throws GameActionException {
+        if(nearEnemyBits == 0) {
+            return;
+        }
+        final MapLocation myLoc = myLocation;
+        // The near grid says which enemies are in range, so only the chosen one goes through canAttack.
+        long inRange = getBitsInActionRadius(nearEnemyBits, myLoc);
+        if(inRange == 0 || !rc.isActionReady()) {
+            return;
+        }
+        int minScore = 0;
+        RobotInfo bestRbt = null;
+        for(; inRange != 0; inRange &= inRange - 1) {
+            final RobotInfo enemyRbt = nearbyEnemyRobots[getLowestBitRobotIndex(inRange)];
+            final int score = getAttackTargetScoreToMinimize(myLoc, enemyRbt);
+            if(bestRbt == null || score < minScore) {
+                bestRbt = enemyRbt;
+                minScore = score;
+            }
+        }
+        if(rc.canAttack(bestRbt.location)) {
+            attackAndUpdateMyVariables(rc, bestRbt.location);
+        }
+    }
+    static int getAttackTargetScoreToMinimize(MapLocation myLoc, RobotInfo enemyRbt) {
+        return enemyRbt.health + myLoc.distanceSquaredTo(enemyRbt.location);
+    }
+
+    // I don't know how this would behave against other teams.  No one else does this.
+    // static void digAroundFlag(RobotController rc) throws GameActionException {
+    //     for(FlagInfo fi : sensedFlags) {
+    //         if(fi.getTeam().equals(rc.getTeam())
+    //             && !fi.isPickedUp()
+    //             && rc.canSenseLocation(fi.getLocation())
+    //             && rc.senseMapInfo(fi.getLocation()).isSpawnZone()
+    //         ) {
+    //             for(Direction d : MOVEMENT_DIRECTIONS) {
+    //                 final MapLocation ml = rc.adjacentLocation(d);
+    //                 final int dist = ml.distanceSquaredTo(fi.getLocation());
+    //                 if(dist == 5 || dist == 8) {
+    //                     if(rc.canDig(ml)) {
+    //                         rc.dig(ml);
+    //                     }
+    //                 }
+    //             }
+    //         }
+    //     }
+    // }
+
+    static void fill(RobotController rc) throws GameActionException {
+        if(nearestCrumbLoc != null) {
+            final MapLocation locInDirOfNearestCrumb = rc.adjacentLocation(myLocation.directionTo(nearestCrumbLoc));
+            if(rc.canFill(locInDirOfNearestCrumb)
+                && isPathClear(rc, nearestCrumbLoc, true, true)
+            ) {
+                fillAndUpdateTerrainMap(rc, locInDirOfNearestCrumb);
+            }
+        }
+        if(rng.nextInt(100) < 5) {
+            final Direction d = MOVEMENT_DIRECTIONS[rng.nextInt(MOVEMENT_DIRECTIONS.length)];
+            if(rc.canFill(rc.adjacentLocation(d))) {
+                fillAndUpdateTerrainMap(rc, rc.adjacentLocation(d));
+            }
+        }
+    }
+
+    static void heal(RobotController rc) throws GameActionException {
+        if(roundNumAtStartOfIteration - roundLastAttacked >= 2 && nearFriendBits != 0) {
+            long inRange = getBitsInActionRadius(nearFriendBits, myLocation);
+            if(inRange == 0 || !rc.isActionReady()) {
+                return;
+            }
+            int minHealth = 0;
+            RobotInfo bestRbt = null;
+            for(; inRange != 0; inRange &= inRange - 1) {
+                final RobotInfo friendlyRbt = nearbyFriendlyRobots[getLowestBitRobotIndex(inRange)];
+                if(bestRbt == null || friendlyRbt.health < minHealth) {
+                    bestRbt = friendlyRbt;
+                    minHealth = friendlyRbt.health;
+                }
+            }
+            if(rc.canHeal(bestRbt.location)) {
+                rc.heal(bestRbt.location);
+            }
+        }
+    }
+
+    static void buildDefensiveTraps(RobotController rc) throws GameActionException {
+        for(int i = 0; i < sensedFriendlyFlagsLength; i++) {
+            final FlagInfo fi = sensedFriendlyFlags[i];
+            if(myLocation.equals(fi.getLocation())) {
+                if(rc.canBuild(TrapType.STUN, myLocation)) {
+                    rc.build(TrapType.STUN, myLocation);
+                    recordBuiltTrap(myLocation, TrapType.STUN);
+                } else if(nearestEnemyRobot != null
+                    && isPathClear(rc, nearestEnemyRobot.location, true, false)
+                    && rc.canBuild(TrapType.STUN, rc.adjacentLocation(myLocation.directionTo(nearestEnemyRobot.location)))
+                ) {
+                    final MapLocation trapLoc = rc.adjacentLocation(myLocation.directionTo(nearestEnemyRobot.location));
+                    rc.build(TrapType.STUN, trapLoc);
+                    recordBuiltTrap(trapLoc, TrapType.STUN);
+                }
+            }
+        }
+    }
+
+    static final int COMBAT_TRAP_SITE_RESENSE_RADIUS_SQUARED = 8; // the 5x5 around us
+    static void buildCombatTraps(RobotController rc) throws GameActionException {
+        final TrapType trapTypeToBuild = TrapType.STUN;
+        if(nearbyEnemyRobotsLength >= COMBAT_TRAP_MIN_ENEMIES && rc.isActionReady()) {
+            final MapLocation myLoc = myLocation;
+            // The score of a tile is the sum over enemies of 1 / distanceSquared, times 1.2^(enemies - friends).
+            // The sums come from the threat grid, 16 bits per cell.
+            final int myCell = getThreatGridCell(myLoc);
+            final long combatNumbersScalar = ScoringTables.combatNumbersScalar(nearbyEnemyRobotsLength - nearbyFriendlyRobotsLength);
+            // score >= 1000 / crumbs, with score in fixed point
+            final long minScoreTimesCrumbs = 1000L << (ScoringTables.RECIPROCAL_SHIFT + ScoringTables.SCALAR_SHIFT);
+            final int crumbs = rc.getCrumbs();
+            long bestScore = 0;
+            Direction bestDir = null;
+            // Where a trap may go comes from terrainMap in one pass over the tiles around us, read only once
+            // some tile scores high enough to be worth a trap.  Tiles off the map are never sites.
+            // The cache only resenses traps that come into vision, so the 5x5 it reads is resensed first:
+            // allies build traps next to us and enemies set ours off.
+            int siteMask = -1;
+            for(int dirIdx = 0; dirIdx < MOVEMENT_DIRECTIONS.length; dirIdx++) {
+                final int cell = myCell + ScoringTables.THREAT_GRID_DIR_STEPS[dirIdx];
+                final long proximity = (threatProximity[cell >> 2] >>> ((cell & 3) << 4)) & 0xFFFF;
+                final long score = proximity * combatNumbersScalar;
+                if(score * crumbs >= minScoreTimesCrumbs && score > bestScore) {
+                    if(siteMask == -1) {
+                        for(MapInfo mi : rc.senseNearbyMapInfos(myLoc, COMBAT_TRAP_SITE_RESENSE_RADIUS_SQUARED)) {
+                            recordTerrain(mi.getMapLocation(), mi);
+                        }
+                        siteMask = Neighbors.computeStunTrapSiteMask(terrainMap, myLoc.x, myLoc.y, rc.getMapWidth(), rc.getMapHeight());
+                    }
+                    final Direction d = MOVEMENT_DIRECTIONS[dirIdx];
+                    if((siteMask & (1 << dirIdx)) != 0
+                        && rc.canBuild(trapTypeToBuild, myLoc.add(d))
+                    ) {
+                        bestDir = d;
+                        bestScore = score;
+                    }
+                }
+            }
+            if(bestDir != null) {
+                rc.build(trapTypeToBuild, rc.adjacentLocation(bestDir));
+                recordBuiltTrap(rc.adjacentLocation(bestDir), trapTypeToBuild);
+            }
+        }
+    }
+
+    // ScoringTables' static initializer costs about 3300 bytecodes, charged to the turn of first use.
+    // Touching it here, ahead of the background tasks, makes that the first turn with room for it
+    // rather than whichever turn first scores a fight.
+    static final int SCORING_TABLES_LOAD_MIN_BYTECODES_LEFT = 3500 + BACKGROUND_TASK_MIN_BYTECODES_LEFT;
+    static boolean areScoringTablesLoaded = false;
+    static void loadScoringTables() {
+        if(!areScoringTablesLoaded && Clock.getBytecodesLeft() > SCORING_TABLES_LOAD_MIN_BYTECODES_LEFT) {
+            areScoringTablesLoaded = ScoringTables.BIT_INDEX.length > 0;
+        }
+    }
+
+    final static GlobalUpgrade [] MY_ORDER = {
+        GlobalUpgrade.ATTACK,
+        GlobalUpgrade.HEALING,
+        GlobalUpgrade.CAPTURING
+    };
+    static void doGlobalUpgrades(RobotController rc) throws GameActionException {
+        for(int k = 0; k < MY_ORDER.length; k++) {
+            if(rc.canBuyGlobal(MY_ORDER[k])) {
+                rc.buyGlobal(MY_ORDER[k]);
+            }
+        }
+    }
+
+    static RobotInfo [] nearbyFriendlyRobots = new RobotInfo[4 * GameConstants.VISION_RADIUS_SQUARED];
+    static int nearbyFriendlyRobotsLength = 0;
+    static RobotInfo [] nearbyEnemyRobots = new RobotInfo[4 * GameConstants.VISION_RADIUS_SQUARED];
+    static int nearbyEnemyRobotsLength = 0;
+    static RobotInfo nearestEnemyRobot = null;
+    static RobotInfo nearestFriendlyRobot = null;
+    static MapLocation locLastSawEnemy = null;
+    static int roundLastSawEnemy = -MY_INF;
+    static MapLocation locLastSawFriend = null;
+    static int roundLastSawFriend = -MY_INF;
+    // What the engine would otherwise be asked again and again within a turn.
+    // myTeam and enemyTeam are set once, myLocation in updateData and again after every move, and the
+    // sensed flags are split by team in updateData.  The round comes from roundNumAtStartOfIteration.
+    static Team myTeam = null;
+    static Team enemyTeam = null;
+    static MapLocation myLocation = null;
+    static final FlagInfo[] sensedFriendlyFlags = new FlagInfo[GameConstants.NUMBER_FLAGS];
+    static int sensedFriendlyFlagsLength = 0;
+    static final FlagInfo[] sensedEnemyFlags = new FlagInfo[GameConstants.NUMBER_FLAGS];
+    static int sensedEnemyFlagsLength = 0;
+    static FlagInfo nearestSensedEnemyFlag = null;
+    static int callForAssistanceRoundNum = 0;
+    static MapLocation callForAssitanceLoc = null;
+    static CallForAssistanceType callForAssistanceType = null;
+    static MapLocation nearestCrumbLoc = null;
+    static int myFlagDroppedResetRounds = GameConstants.FLAG_DROPPED_RESET_ROUNDS;
+    static void updateData(RobotController rc) throws GameActionException {
+        final MapLocation myLoc = rc.getLocation();
+        myLocation = myLoc;
+        robotGridCenter = myLoc;
+        // The near grid bit of (x, y) is x * NEAR_GRID_SIDE + y - bitOrigin.
+        final int bitOrigin = (myLoc.x - ScoringTables.NEAR_GRID_RADIUS) * ScoringTables.NEAR_GRID_SIDE
+            + myLoc.y - ScoringTables.NEAR_GRID_RADIUS;
+        long friendBits = 0;
+        long enemyBits = 0;
+        nearbyFriendlyRobotsLength = 0;
+        nearbyEnemyRobotsLength = 0;
+        nearestEnemyRobot = null; int minDistSqdToEnemy = MY_INF;
+        nearestFriendlyRobot = null; int minDistSqdToFriend = MY_INF;
+        int totalEnemyRobotX = 0; int totalEnemyRobotY = 0;
+        int totalFriendlyRobotX = 0; int totalFriendlyRobotY = 0;
+        for(RobotInfo robotInfo : rc.senseNearbyRobots(-1)) {
+            final MapLocation loc = robotInfo.location;
+            final int dist = myLoc.distanceSquaredTo(loc);
+            if(robotInfo.getTeam().equals(myTeam)) {
+                nearbyFriendlyRobots[nearbyFriendlyRobotsLength] = robotInfo;
+                if(dist <= NEAR_ROBOT_MAX_DIST_SQD) {
+                    final int bit = loc.x * ScoringTables.NEAR_GRID_SIDE + loc.y - bitOrigin;
+                    friendBits |= 1L << bit;
+                    nearRobotIndices[bit] = nearbyFriendlyRobotsLength;
+                }
+                nearbyFriendlyRobotsLength++;
+                totalFriendlyRobotX += loc.x; totalFriendlyRobotY += loc.y;
+                if(dist < minDistSqdToFriend) {
+                    nearestFriendlyRobot = robotInfo; minDistSqdToFriend = dist;
+                }
+            } else {
+                nearbyEnemyRobots[nearbyEnemyRobotsLength] = robotInfo;
+                if(dist <= NEAR_ROBOT_MAX_DIST_SQD) {
+                    final int bit = loc.x * ScoringTables.NEAR_GRID_SIDE + loc.y - bitOrigin;
+                    enemyBits |= 1L << bit;
+                    nearRobotIndices[bit] = nearbyEnemyRobotsLength;
+                }
+                nearbyEnemyRobotsLength++;
+                totalEnemyRobotX += loc.x; totalEnemyRobotY += loc.y;
+                if(dist < minDistSqdToEnemy) {
+                    nearestEnemyRobot = robotInfo; minDistSqdToEnemy = dist;
+                }
+            }
+        }
+        nearFriendBits = friendBits;
+        nearEnemyBits = enemyBits;
+        if(nearbyEnemyRobotsLength >= 1) {
+            updateThreatGrid(myLoc);
+            locLastSawEnemy = new MapLocation(
+                totalEnemyRobotX / nearbyEnemyRobotsLength,
+                totalEnemyRobotY / nearbyEnemyRobotsLength
+            );
+            roundLastSawEnemy = roundNumAtStartOfIteration;
+        }
+        if(nearbyFriendlyRobotsLength >= 1) {
+            locLastSawFriend = new MapLocation(
+                totalFriendlyRobotX / nearbyFriendlyRobotsLength,
+                totalFriendlyRobotY / nearbyFriendlyRobotsLength
+            );
+            roundLastSawFriend = roundNumAtStartOfIteration;
+        }
+        int minDistSqd = MY_INF;
+        nearestSensedEnemyFlag = null;
+        sensedFriendlyFlagsLength = 0;
+        sensedEnemyFlagsLength = 0;
+        for(FlagInfo fi : rc.senseNearbyFlags(-1)) {
+            if(myTeam.equals(fi.getTeam())) {
+                sensedFriendlyFlags[sensedFriendlyFlagsLength] = fi;
+                sensedFriendlyFlagsLength++;
+            } else {
+                sensedEnemyFlags[sensedEnemyFlagsLength] = fi;
+                sensedEnemyFlagsLength++;
+                final int dist = myLoc.distanceSquaredTo(fi.getLocation());
+                if(dist < minDistSqd) {
+                    minDistSqd = dist;
+                    nearestSensedEnemyFlag = fi;
+                }
+            }
+        }
+
+        readMessageBus(rc);
+        selectCallForAssistance(rc);
+
+        nearestCrumbLoc = null;
+        int minDistSqdToCrumbs = MY_INF;
+        for(MapLocation crumbLoc : rc.senseNearbyCrumbs(-1)) {
+            final int dist = myLocation.distanceSquaredTo(crumbLoc);
+            if(nearestCrumbLoc == null
+                || dist < minDistSqdToCrumbs
+            ) {
+                nearestCrumbLoc = crumbLoc;
+                minDistSqdToCrumbs = dist;
+            }
+        }
+
+        boolean hasCapturingUpgrade = false;
+        for(GlobalUpgrade gu : rc.getGlobalUpgrades(myTeam)) {
+            if(gu.equals(GlobalUpgrade.CAPTURING)) {
+                hasCapturingUpgrade = true;
+            }
+        }
+        if(hasCapturingUpgrade) {
+            myFlagDroppedResetRounds =
+                GameConstants.FLAG_DROPPED_RESET_ROUNDS
+                + GlobalUpgrade.CAPTURING.flagReturnDelayChange;
+        } else {
+            myFlagDroppedResetRounds = GameConstants.FLAG_DROPPED_RESET_ROUNDS;
+        }
+
+        updateTerrainMap(rc);
+        refreshCanMoveMask(rc);
+        markExploredSector(rc, myLoc);
+    }
+
+    // The near grid indexes the robots updateData sensed close to robotGridCenter, where we stood then.
+    // We move at most once a turn, so only robots within NEAR_ROBOT_MAX_DIST_SQD of the center can ever be
+    // within our attack or heal radius, and those all fit on the 7x7 tiles around it.  Each tile is a bit
+    // of nearFriendBits or nearEnemyBits, and nearRobotIndices maps the bit to the robot's index in
+    // nearbyFriendlyRobots or nearbyEnemyRobots.  A radius query is then one AND with a mask from
+    // ScoringTables plus a step per robot found, however many robots are in sight.
+    // Bits that are not set say nothing, so nearRobotIndices never needs clearing.
+    static final int NEAR_ROBOT_MAX_DIST_SQD = 10;
+    static MapLocation robotGridCenter = null;
+    static long nearFriendBits = 0;
+    static long nearEnemyBits = 0;
+    static final int[] nearRobotIndices = new int[ScoringTables.NEAR_GRID_SIDE * ScoringTables.NEAR_GRID_SIDE];
+    /** The bits of bits within attack and heal radius of ml, which must be within one step of robotGridCenter. */
+    static long getBitsInActionRadius(long bits, MapLocation ml) {
+        return bits & ScoringTables.NEAR_ACTION_MASKS[
+            (ml.x - robotGridCenter.x + ScoringTables.NEAR_GRID_RADIUS) * ScoringTables.NEAR_GRID_SIDE
+            + (ml.y - robotGridCenter.y + ScoringTables.NEAR_GRID_RADIUS)
+        ];
+    }
+    /** The index of the robot at the lowest set bit of bits. */
+    static int getLowestBitRobotIndex(long bits) {
+        return nearRobotIndices[ScoringTables.BIT_INDEX[(int)((bits & -bits) % ScoringTables.BIT_INDEX_MODULUS)]];
+    }
+
+    // The threat grid holds what the enemies in sight threaten on the 5x5 tiles around robotGridCenter.
+    // It is built in one pass over the enemies and then shared by pickCombatMoveDir and buildCombatTraps.
+    // Every tile next to us stays on the grid until the next updateData, as for NEAR_ROBOT_MAX_DIST_SQD.
+    // With no enemies in sight it is not built.  See ScoringTables for the cell layout.
+    static final int COMBAT_TRAP_MIN_ENEMIES = 5;
+    // Byte k counts the enemies that can attack the tile next to the center in direction k.
+    static long threatReachCounts = 0;
+    // Lane c & 3 of threatProximity[c >> 2] is the sum over enemies of 1 / distanceSquared to cell c,
+    // with RECIPROCAL_SHIFT fraction bits.  Only buildCombatTraps reads it, so it is only built when that will.
+    static final long[] threatProximity = new long[ScoringTables.NUM_PROXIMITY_LANES];
+    static void updateThreatGrid(MapLocation center) {
+        long reachCounts = 0;
+        final boolean isProximityNeeded = nearbyEnemyRobotsLength >= COMBAT_TRAP_MIN_ENEMIES;
+        long p0 = 0, p1 = 0, p2 = 0, p3 = 0, p4 = 0, p5 = 0, p6 = 0;
+        for(int k = 0; k < nearbyEnemyRobotsLength; k++) {
+            final MapLocation enemyLoc = nearbyEnemyRobots[k].location;
+            // Every sensed enemy is within VISION_GRID_RADIUS on each axis, so there is no bounds check.
+            final int idx = (enemyLoc.x - center.x + ScoringTables.VISION_GRID_RADIUS) * ScoringTables.VISION_GRID_SIDE
+                + (enemyLoc.y - center.y + ScoringTables.VISION_GRID_RADIUS);
+            reachCounts += ScoringTables.REACH_COUNTS[idx];
+            if(isProximityNeeded) {
+                p0 += ScoringTables.PROXIMITY_0[idx];
+                p1 += ScoringTables.PROXIMITY_1[idx];
+                p2 += ScoringTables.PROXIMITY_2[idx];
+                p3 += ScoringTables.PROXIMITY_3[idx];
+                p4 += ScoringTables.PROXIMITY_4[idx];
+                p5 += ScoringTables.PROXIMITY_5[idx];
+                p6 += ScoringTables.PROXIMITY_6[idx];
+            }
+        }
+        threatReachCounts = reachCounts;
+        if(isProximityNeeded) {
+            threatProximity[0] = p0;
+            threatProximity[1] = p1;
+            threatProximity[2] = p2;
+            threatProximity[3] = p3;
+            threatProximity[4] = p4;
+            threatProximity[5] = p5;
+            threatProximity[6] = p6;
+        }
+    }
+    /** The threat grid cell of ml, which must be within THREAT_GRID_RADIUS of robotGridCenter on each axis. */
+    static int getThreatGridCell(MapLocation ml) {
+        return (ml.x - robotGridCenter.x + ScoringTables.THREAT_GRID_RADIUS) * ScoringTables.THREAT_GRID_SIDE
+            + (ml.y - robotGridCenter.y + ScoringTables.THREAT_GRID_RADIUS);
+    }
+
+    // terrainMap caches what we know about each tile, 0 meaning that we have never sensed it.
+    // It is kept up to date incrementally: after a move only the tiles that just came into
+    // vision are sensed, and the whole vision radius is resensed every TERRAIN_REFRESH_ROUNDS.
+    // All terrain questions should be answered from here instead of with senseMapInfo.
+    static final int TERRAIN_SENSED_BIT = 1;
+    static final int TERRAIN_WALL_BIT = 1 << 1;
+    static final int TERRAIN_WATER_BIT = 1 << 2;
+    static final int TERRAIN_DAM_BIT = 1 << 3;
+    static final int TERRAIN_SPAWN_ZONE_BIT = 1 << 4;
+    static final int TERRAIN_TRAP_BIT = 1 << 5; // only our own traps can be sensed
+    static final int TERRAIN_STUN_TRAP_BIT = 1 << 6;
+    static final int TERRAIN_IMPASSABLE_BITS = TERRAIN_WALL_BIT | TERRAIN_WATER_BIT | TERRAIN_DAM_BIT;
+    static final int TERRAIN_REFRESH_ROUNDS = 10;
+    static int[][] terrainMap = null;
+    static int terrainMapVersion = 0; // incremented whenever the passability we know of changes
+    // Incremented whenever a tile starts or stops being known passable, the only tiles the spawn BFS walks.
+    static int knownPassableVersion = 0;
+    static MapLocation terrainMapLastUpdateLoc = null;
+    static int terrainMapLastFullUpdateRound = -MY_INF;
+    // Every tile we have recorded as a dam, packed (x << 8) | y, so that the dams can be cleared when
+    // they drop at SETUP_ROUNDS; resensing only reaches the tiles that are in vision.
+    static int[] damTiles = new int[64];
+    static int numDamTiles = 0;
+    static boolean haveDamsDropped = false;
+    static void clearDroppedDams() {
+        for(int k = 0; k < numDamTiles; k++) {
+            final int packed = damTiles[k];
+            terrainMap[packed >> 8][packed & 0b11111111] &= ~TERRAIN_DAM_BIT;
+        }
+        numDamTiles = 0;
+        haveDamsDropped = true;
+        terrainMapVersion++;
+        knownPassableVersion++;
+        registerBackgroundTask(TASK_SPAWN_BFS);
+        // Unlike requestEnemyFlagFieldRebuild, this also redoes a build in progress, which still has the dams.
+        isEnemyFlagFieldRebuildWanted = true;
+        registerBackgroundTask(TASK_FLAG_BFS);
+    }
+    // For each Direction ordinal, the offsets (relative to the new location) of the tiles
+    // that come into vision when moving one step in that direction.
+    static int[][] newlyVisibleDx = null;
+    static int[][] newlyVisibleDy = null;
+    static void initNewlyVisibleOffsets() {
+        final int r = (int)SQRT_VISION_RADIUS;
+        newlyVisibleDx = new int[Direction.values().length][];
+        newlyVisibleDy = new int[Direction.values().length][];
+        final int[] dxs = new int[4 * (2 * r + 1)];
+        final int[] dys = new int[dxs.length];
+        for(Direction d : MOVEMENT_DIRECTIONS) {
+            int n = 0;
+            for(int dx = -r; dx <= r; dx++) {
+                for(int dy = -r; dy <= r; dy++) {
+                    final int oldDx = dx + d.dx;
+                    final int oldDy = dy + d.dy;
+                    if(dx * dx + dy * dy <= GameConstants.VISION_RADIUS_SQUARED
+                        && oldDx * oldDx + oldDy * oldDy > GameConstants.VISION_RADIUS_SQUARED
+                    ) {
+                        dxs[n] = dx;
+                        dys[n] = dy;
+                        n++;
+                    }
+                }
+            }
+            newlyVisibleDx[d.ordinal()] = new int[n];
+            newlyVisibleDy[d.ordinal()] = new int[n];
+            System.arraycopy(dxs, 0, newlyVisibleDx[d.ordinal()], 0, n);
+            System.arraycopy(dys, 0, newlyVisibleDy[d.ordinal()], 0, n);
+        }
+    }
+    static void recordTerrain(MapLocation ml, MapInfo mi) {
+        int t = TERRAIN_SENSED_BIT;
+        if(mi.isWall()) {
+            t |= TERRAIN_WALL_BIT;
+        } else if(mi.isWater()) {
+            t |= TERRAIN_WATER_BIT;
+        } else if(mi.isDam()) {
+            t |= TERRAIN_DAM_BIT;
+        }
+        if(mi.isSpawnZone()) {
+            t |= TERRAIN_SPAWN_ZONE_BIT;
+        }
+        final TrapType trapType = mi.getTrapType();
+        if(trapType != null && trapType != TrapType.NONE) {
+            t |= TERRAIN_TRAP_BIT;
+            if(trapType == TrapType.STUN) {
+                t |= TERRAIN_STUN_TRAP_BIT;
+            }
+        }
+        setTerrain(ml.x, ml.y, t);
+    }
+    static void setTerrain(int x, int y, int t) {
+        final int old = terrainMap[x][y];
+        if(old != t) {
+            terrainMap[x][y] = t;
+            if(old == 0 && !isSymmetryResolved) {
+                queueSymmetryCheck(x, y);
+            }
+            if((t & ~old & TERRAIN_DAM_BIT) != 0) {
+                if(numDamTiles == damTiles.length) {
+                    final int[] grown = new int[2 * numDamTiles];
+                    System.arraycopy(damTiles, 0, grown, 0, numDamTiles);
+                    damTiles = grown;
+                }
+                damTiles[numDamTiles] = (x << 8) | y;
+                numDamTiles++;
+            }
+            if(((old ^ t) & (TERRAIN_SENSED_BIT | TERRAIN_IMPASSABLE_BITS)) != 0) {
+                terrainMapVersion++;
+                // Sensing a wall or water leaves the spawn field as it is.
+                if(((old & (TERRAIN_SENSED_BIT | TERRAIN_IMPASSABLE_BITS)) == TERRAIN_SENSED_BIT)
+                    != ((t & (TERRAIN_SENSED_BIT | TERRAIN_IMPASSABLE_BITS)) == TERRAIN_SENSED_BIT)
+                ) {
+                    knownPassableVersion++;
+                    registerBackgroundTask(TASK_SPAWN_BFS);
+                }
+            }
+        }
+    }
+    static void updateTerrainMap(RobotController rc) throws GameActionException {
+        final MapLocation myLoc = myLocation;
+        if(!haveDamsDropped && roundNumAtStartOfIteration > GameConstants.SETUP_ROUNDS) {
+            clearDroppedDams();
+        }
+        if(roundNumAtStartOfIteration - terrainMapLastFullUpdateRound >= TERRAIN_REFRESH_ROUNDS
+            || terrainMapLastUpdateLoc == null
+            || !(myLoc.equals(terrainMapLastUpdateLoc) || myLoc.isAdjacentTo(terrainMapLastUpdateLoc))
+        ) {
+            // Tiles change when water is filled or dug, when the dams drop, and when traps are triggered.
+            for(MapInfo mi : rc.senseNearbyMapInfos()) {
+                recordTerrain(mi.getMapLocation(), mi);
+            }
+            terrainMapLastFullUpdateRound = roundNumAtStartOfIteration;
+        } else if(!myLoc.equals(terrainMapLastUpdateLoc)) {
+            final int dirOrdinal = terrainMapLastUpdateLoc.directionTo(myLoc).ordinal();
+            final int[] dxs = newlyVisibleDx[dirOrdinal];
+            final int[] dys = newlyVisibleDy[dirOrdinal];
+            final int mw = rc.getMapWidth();
+            final int mh = rc.getMapHeight();
+            for(int k = 0; k < dxs.length; k++) {
+                final int x = myLoc.x + dxs[k];
+                final int y = myLoc.y + dys[k];
+                if(x >= 0 && y >= 0 && x < mw && y < mh) {
+                    final MapLocation ml = new MapLocation(x, y);
+                    recordTerrain(ml, rc.senseMapInfo(ml));
+                }
+            }
+        }
+        terrainMapLastUpdateLoc = myLoc;
+    }
+    static boolean isKnownPassable(MapLocation ml) {
+        return (terrainMap[ml.x][ml.y] & (TERRAIN_SENSED_BIT | TERRAIN_IMPASSABLE_BITS)) == TERRAIN_SENSED_BIT;
+    }
+    static void recordBuiltTrap(MapLocation ml, TrapType trapType) {
+        setTerrain(ml.x, ml.y, terrainMap[ml.x][ml.y]
+            | TERRAIN_TRAP_BIT
+            | (trapType == TrapType.STUN ? TERRAIN_STUN_TRAP_BIT : 0)
+        );
+    }
+    static void fillAndUpdateTerrainMap(RobotController rc, MapLocation locToFill) throws GameActionException {
+        rc.fill(locToFill);
+        setTerrain(locToFill.x, locToFill.y, terrainMap[locToFill.x][locToFill.y] & ~TERRAIN_WATER_BIT);
+        refreshCanMoveMask(rc);
+    }
+
+
+    static void pickupEnemyFlags(RobotController rc) throws GameActionException {
+        // The flags sensed at the start of the turn are the only ones that can be in reach after one move.
+        for(int i = 0; i < sensedEnemyFlagsLength; i++) {
+            final FlagInfo fi = sensedEnemyFlags[i];
+            if(rc.canPickupFlag(fi.getLocation())) {
+                rc.pickupFlag(fi.getLocation());
+                refreshCanMoveMask(rc);
+            }
+        }
+    }
+
+    static Direction dirLastMoved = null;
+    static int roundLastMoved = -1;
+    /**
+     * PRECONDITION: canMove must have returned true for this dirToMove
+     */
+    static void moveAndUpdateMyVariables(RobotController rc, Direction dirToMove) throws GameActionException {
+        rc.move(dirToMove);
+        myLocation = rc.getLocation();
+        dirLastMoved = dirToMove;
+        roundLastMoved = roundNumAtStartOfIteration;
+        updateTerrainMap(rc);
+        refreshCanMoveMask(rc);
+    }
+    /**
+     * Picks the direction in canMoveMask whose tile scores best for combat, or null if there is none.
+     * The score of a tile is numerator / (1 + its distanceSquared to target), where the numerator is
+     * 1 if exactly one enemy can attack the tile and we can attack back,
+     * minus the number of enemies that can attack it if we cannot attack,
+     * and (health - explosive trap damage) / DEFAULT_HEALTH otherwise.
+     * Numerators are kept in units of 1 / DEFAULT_HEALTH, so the scores are exact integer ratios
+     * and are compared by cross-multiplying.
+     * The attacker counts come from the threat grid, so this must run before we move this turn.
+     */
+    static Direction pickCombatMoveDir(RobotController rc, MapLocation target) {
+        final MapLocation myLoc = myLocation;
+        // Byte k counts the enemies that can attack the tile in direction k.
+        final long reachCounts = threatReachCounts;
+        final boolean isActionReady = rc.isActionReady();
+        final int healthNumerator = rc.getHealth() - TrapType.EXPLOSIVE.enterDamage;
+        int bestNumerator = 0;
+        int bestDenominator = 1;
+        Direction bestDir = null;
+        for(int dirIdx = 0; dirIdx < MOVEMENT_DIRECTIONS.length; dirIdx++) {
+            if((canMoveMask & (1 << dirIdx)) != 0) {
+                final Direction d = MOVEMENT_DIRECTIONS[dirIdx];
+                final int numEnemiesThatCanReachThisLoc = (int)(reachCounts >>> (8 * dirIdx)) & 0xFF;
+                final int numerator;
+                if(numEnemiesThatCanReachThisLoc == 1 && isActionReady) {
+                    numerator = GameConstants.DEFAULT_HEALTH;
+                } else if(!isActionReady) {
+                    numerator = -numEnemiesThatCanReachThisLoc * GameConstants.DEFAULT_HEALTH;
+                } else {
+                    numerator = healthNumerator;
+                }
+                final int dx = myLoc.x + d.dx - target.x;
+                final int dy = myLoc.y + d.dy - target.y;
+                final int denominator = 1 + dx * dx + dy * dy;
+                if(bestDir == null || numerator * bestDenominator > bestNumerator * denominator) {
+                    bestDir = d;
+                    bestNumerator = numerator;
+                    bestDenominator = denominator;
+                }
+            }
+        }
+        return bestDir;
+    }
+    // The branches of move, one bit each in moveBranches, which startProfiledTurn clears every turn.
+    // A, B, C and D are the branches named by their indicator strings.
+    static final int MOVE_BRANCH_CARRY_FLAG = 0;
+    static final int MOVE_BRANCH_GUARD_FLAG = 1;
+    static final int MOVE_BRANCH_SENSED_ENEMY_FLAG = 2;
+    static final int MOVE_BRANCH_COMBAT = 3;
+    static final int MOVE_BRANCH_HEAL = 4;
+    static final int MOVE_BRANCH_A = 5;
+    static final int MOVE_BRANCH_B = 6;
+    static final int MOVE_BRANCH_C = 7;
+    static final int MOVE_BRANCH_D = 8;
+    static final int MOVE_BRANCH_CRUMB = 9;
+    static final int MOVE_BRANCH_EXPLORE = 10;
+    static final int NUM_MOVE_BRANCHES = 11;
+    static final String[] MOVE_BRANCH_NAMES = {
+        "carry", "guard", "eflag", "combat", "heal", "A", "B", "C", "D", "crumb", "explore",
+    };
+    static int moveBranches = 0;
+    static void move(RobotController rc) throws GameActionException {
+        // If we are holding an enemy flag, singularly focus on moving towards
+        // an ally spawn zone to capture it! We use the check roundNum >= SETUP_ROUNDS
+        // to make sure setup phase has ended.
+        if (rc.hasFlag() && roundNumAtStartOfIteration >= GameConstants.SETUP_ROUNDS){
+            moveBranches |= 1 << MOVE_BRANCH_CARRY_FLAG;
+            if(!moveTowardSpawnLocUsingSpawnDistanceField(rc)) {
+                moveTowardSpawnLocUsingDaMap(rc);
+            }
+            if(nearbyFriendlyRobotsLength <= nearbyEnemyRobotsLength) {
+                callForAssistance(rc, myLocation, CallForAssistanceType.HAVE_ENEMY_FLAG);
+            }
+        }
+
+        boolean isOnFriendlyFlag = false;
+        for(int i = 0; i < sensedFriendlyFlagsLength; i++) {
+            final FlagInfo fi = sensedFriendlyFlags[i];
+            if(myLocation.equals(fi.getLocation())) {
+                isOnFriendlyFlag = true;
+            } else if(rc.canSenseLocation(fi.getLocation())
+                && null == rc.senseRobotAtLocation(fi.getLocation())
+            ) {
+                moveBranches |= 1 << MOVE_BRANCH_GUARD_FLAG;
+                hybridMove(rc, fi.getLocation());
+            }
+        }
+
+        if(!isOnFriendlyFlag
+            && rc.isMovementReady()
+            && roundNumAtStartOfIteration >= GameConstants.SETUP_ROUNDS - 20
+        ) {
+            if(nearestSensedEnemyFlag != null
+                && !nearestSensedEnemyFlag.isPickedUp()
+            ) {
+                moveBranches |= 1 << MOVE_BRANCH_SENSED_ENEMY_FLAG;
+                hybridMove(rc, nearestSensedEnemyFlag.getLocation());
+                rc.setIndicatorString("nearestSensedEnemyFlag move " + String.valueOf(nearestSensedEnemyFlag));
+            }
+
+            int minDistSqdToFriendNeedingHealed = MY_INF;
+            RobotInfo nearestFriendNeedingHealed = null;
+            for(int k = 0; k < nearbyFriendlyRobotsLength; k++) {
+                final RobotInfo ri = nearbyFriendlyRobots[k];
+                if(ri.getHealth() <= TrapType.EXPLOSIVE.enterDamage
+                    && isPathClear(rc, ri.location, false, false)
+                ) {
+                    final int dist = myLocation.distanceSquaredTo(ri.location);
+                    if(nearestFriendNeedingHealed == null
+                        || dist < minDistSqdToFriendNeedingHealed
+                    ) {
+                        nearestFriendNeedingHealed = ri;
+                        minDistSqdToFriendNeedingHealed = dist;
+                    }
+                }
+            }
+
+            if(nearestEnemyRobot != null
+                && myLocation.distanceSquaredTo(nearestEnemyRobot.location)
+                    <= 6 + GameConstants.ATTACK_RADIUS_SQUARED
+            ) {
+                moveBranches |= 1 << MOVE_BRANCH_COMBAT;
+                final Direction bestDir = pickCombatMoveDir(rc, nearestEnemyRobot.location);
+                if(bestDir != null) {
+                    moveAndUpdateMyVariables(rc, bestDir);
+                    rc.setIndicatorString("combatMove" + String.valueOf(bestDir));
+                }
+            } else if(nearestFriendNeedingHealed != null) {
+                moveBranches |= 1 << MOVE_BRANCH_HEAL;
+                hybridMove(rc, nearestFriendNeedingHealed.location);
+            } else {
+                final boolean isCFALavailable = (
+                    callForAssitanceLoc != null
+                    && roundNumAtStartOfIteration - callForAssistanceRoundNum < CALL_FOR_ASSISTANCE_EXPIRATION
+                    && myLocation.distanceSquaredTo(callForAssitanceLoc) < CALL_FOR_ASSISTANCE_MAX_DISTANCE_SQUARED
+                );
+                if(isCFALavailable
+                    && CallForAssistanceType.HAVE_ENEMY_FLAG.equals(callForAssistanceType)
+                ) {
+                    moveBranches |= 1 << MOVE_BRANCH_A;
+                    hybridMove(rc, callForAssitanceLoc);
+                    rc.setIndicatorString("A" + callForAssitanceLoc.toString() + callForAssistanceRoundNum);
+                } else {
+                    MapLocation target = (
+                        nearestNonexpiredEnemyFlagLoc != null
+                        ? nearestNonexpiredEnemyFlagLoc
+                        : nearestPredictedEnemyFlagLoc != null
+                        ? nearestPredictedEnemyFlagLoc
+                        : nearestBroadcastLoc
+                    );
+                    if(target != null
+                        && nearbyFriendlyRobotsLength >= 1
+                    ) {
+                        moveBranches |= 1 << MOVE_BRANCH_B;
+                        // The flag field leads to whichever known or predicted flag is nearest by path.
+                        if(target == nearestBroadcastLoc || !moveTowardEnemyFlagUsingDistanceField(rc)) {
+                            hybridMove(rc, target);
+                        }
+                        rc.setIndicatorString("B" + target.toString());
+                    } else {
+                        if(isCFALavailable) {
+                            moveBranches |= 1 << MOVE_BRANCH_C;
+                            hybridMove(rc, callForAssitanceLoc);
+                            rc.setIndicatorString("C" + callForAssitanceLoc.toString() + callForAssistanceRoundNum + String.valueOf(target));
+                        } else {
+                            moveBranches |= 1 << MOVE_BRANCH_D;
+                            exploreMove(rc);
+                            rc.setIndicatorString("D" + lastSpawLocation.toString() + "callForAssitanceLoc" + String.valueOf(callForAssitanceLoc) + String.valueOf(target));
+                        }
+                    }
+                }
+            }
+        }
+
+        if(!isOnFriendlyFlag && rc.isMovementReady()) {
+            if(nearestCrumbLoc != null
+                && isPathClear(rc, nearestCrumbLoc, true, true)
+            ) {
+                moveBranches |= 1 << MOVE_BRANCH_CRUMB;
+                hybridMove(rc, nearestCrumbLoc);
+                rc.setIndicatorString("crumbMove" + nearestCrumbLoc.toString());
+            } else {
+                moveBranches |= 1 << MOVE_BRANCH_EXPLORE;
+                exploreMove(rc);
+                rc.setIndicatorString("exploreMove" + String.valueOf(exploreTarget));
+            }
+        }
+    }
+
+    static boolean isPathClear(
+        RobotController rc,
+        MapLocation dest,
+        boolean isWaterPassable,
+        boolean testDestination
+    ) throws GameActionException {
+        // ignores robots
+        MapLocation curLocation = myLocation;
+        boolean result = true;
+        while(result
+            && !curLocation.equals(dest)
+        ) {
+            curLocation = curLocation.add(curLocation.directionTo(dest));
+            if(!curLocation.equals(dest) || testDestination) {
+                final int t = terrainMap[curLocation.x][curLocation.y];
+                if((t & TERRAIN_SENSED_BIT) == 0
+                    || (t & (TERRAIN_WALL_BIT | TERRAIN_DAM_BIT)) != 0
+                    || (!isWaterPassable && (t & TERRAIN_WATER_BIT) != 0)
+                ) {
+                    result = false;
+                }
+            }
+        }
+        return result;
+    }
+
+    // The team shares which coarse sectors of the map have been seen, one bit per sector in the shared
+    // array starting at EXPLORED_SECTORS_FIRST_INDEX.  Sector (sx, sy) covers the EXPLORE_SECTOR_SIZE
+    // square of tiles from (sx, sy) * EXPLORE_SECTOR_SIZE and is bit sx * exploreSectorsY + sy.
+    // Standing in a sector is taken to mean having seen it, since vision covers most of it.
+    // exploreMove heads for the nearest sector nobody has seen, and wanders once all have been.
+    static final int EXPLORE_SECTOR_SIZE = 6;
+    static final int EXPLORED_SECTORS_FIRST_INDEX = 1 + ENEMY_FLAG_TABLE_VERSION_INDEX;
+    static final int EXPLORED_SECTORS_NUM_INDEXES = 7; // enough for 60x60 maps
+    static final int EXPLORE_TARGET_MAX_ROUNDS = 40;
+    static int exploreSectorsX = 0;
+    static int exploreSectorsY = 0;
+    static int lastMarkedExploreSector = -1;
+    static boolean[] isExploreSectorAbandoned = null; // by us alone, after failing to reach it
+    static void initExploreSectors(RobotController rc) {
+        exploreSectorsX = (rc.getMapWidth() + EXPLORE_SECTOR_SIZE - 1) / EXPLORE_SECTOR_SIZE;
+        exploreSectorsY = (rc.getMapHeight() + EXPLORE_SECTOR_SIZE - 1) / EXPLORE_SECTOR_SIZE;
+        isExploreSectorAbandoned = new boolean[exploreSectorsX * exploreSectorsY];
+    }
+    static int getExploreSector(MapLocation ml) {
+        return (ml.x / EXPLORE_SECTOR_SIZE) * exploreSectorsY + ml.y / EXPLORE_SECTOR_SIZE;
+    }
+    static boolean isExploreSectorExplored(RobotController rc, int sector) throws GameActionException {
+        return (rc.readSharedArray(EXPLORED_SECTORS_FIRST_INDEX + (sector >> 4)) & (1 << (sector & 0b1111))) != 0;
+    }
+    static void markExploredSector(RobotController rc, MapLocation myLoc) throws GameActionException {
+        final int sector = getExploreSector(myLoc);
+        if(sector != lastMarkedExploreSector) {
+            final int index = EXPLORED_SECTORS_FIRST_INDEX + (sector >> 4);
+            final int word = rc.readSharedArray(index);
+            final int bit = 1 << (sector & 0b1111);
+            if((word & bit) == 0) {
+                rc.writeSharedArray(index, word | bit);
+            }
+            lastMarkedExploreSector = sector;
+        }
+    }
+    /** Returns the center of the nearest sector that nobody has explored, or null if there is none. */
+    static MapLocation pickExploreFrontier(RobotController rc) throws GameActionException {
+        final MapLocation myLoc = myLocation;
+        final int mw = rc.getMapWidth();
+        final int mh = rc.getMapHeight();
+        final int numSectors = exploreSectorsX * exploreSectorsY;
+        MapLocation best = null;
+        int bestDist = MY_INF * MY_INF;
+        for(int first = 0; first < numSectors; first += 16) {
+            final int word = rc.readSharedArray(EXPLORED_SECTORS_FIRST_INDEX + (first >> 4));
+            if(word == 0xFFFF) {
+                continue;
+            }
+            final int end = Math.min(first + 16, numSectors);
+            for(int sector = first; sector < end; sector++) {
+                if((word & (1 << (sector - first))) == 0 && !isExploreSectorAbandoned[sector]) {
+                    final int x = Math.min((sector / exploreSectorsY) * EXPLORE_SECTOR_SIZE + EXPLORE_SECTOR_SIZE / 2, mw - 1);
+                    final int y = Math.min((sector % exploreSectorsY) * EXPLORE_SECTOR_SIZE + EXPLORE_SECTOR_SIZE / 2, mh - 1);
+                    final int dx = x - myLoc.x;
+                    final int dy = y - myLoc.y;
+                    final int dist = dx * dx + dy * dy;
+                    if(dist < bestDist) {
+                        bestDist = dist;
+                        best = new MapLocation(x, y);
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    static MapLocation exploreTarget = null;
+    static int exploreTargetRoundNum = 0;
+    static boolean isExploreTargetWander = false; // a random tile, picked once every sector was explored
+    static boolean exploreMove(RobotController rc) throws GameActionException {
+        return exploreMove(rc, defaultCanMove);
+    }
+    static boolean exploreMove(RobotController rc, CanMove canMove) throws GameActionException {
+        if(!rc.isMovementReady()) {
+            return false;
+        }
+        if(exploreTarget != null) {
+            final int sector = getExploreSector(exploreTarget);
+            if(roundNumAtStartOfIteration - exploreTargetRoundNum > EXPLORE_TARGET_MAX_ROUNDS) {
+                if(!isExploreTargetWander) {
+                    isExploreSectorAbandoned[sector] = true;
+                }
+                exploreTarget = null;
+            } else if(myLocation.equals(exploreTarget)
+                // A wander target's sector is explored by definition, so only reaching it or the timeout ends it.
+                || (!isExploreTargetWander && isExploreSectorExplored(rc, sector))
+            ) {
+                exploreTarget = null;
+            }
+        }
+        if(exploreTarget == null) {
+            exploreTarget = pickExploreFrontier(rc);
+            isExploreTargetWander = exploreTarget == null;
+            if(isExploreTargetWander) {
+                // Everything has been seen, so wander.
+                exploreTarget = new MapLocation(rng.nextInt(rc.getMapWidth()), rng.nextInt(rc.getMapHeight()));
+            }
+            exploreTargetRoundNum = roundNumAtStartOfIteration;
+        }
+        final MapLocation startLoc = myLocation;
+        hybridMove(rc, exploreTarget, canMove);
+        return !myLocation.equals(startLoc);
+    }
+
+    // Map symmetry inference.  Maps are symmetric under one of three maps from a tile to its mirror:
+    // flipping x, flipping y, or rotating a half turn, which flips both.  A hypothesis is ruled out as
+    // soon as some tile and its mirror are both sensed and disagree about walls or spawn zones, the
+    // only terrain that never changes.  Every tile we sense for the first time is queued for the
+    // TASK_SYMMETRY background task, and the ruled out bits are shared at SYMMETRY_INDEX.
+    // Once one hypothesis is left, the mirrors of our spawn zone centers, where the enemy flags start,
+    // become targets until we see that their flag is gone.
+    static final int SYMMETRY_FLIP_X = 1;
+    static final int SYMMETRY_FLIP_Y = 2;
+    static final int SYMMETRY_ROTATE = 4;
+    static final int ALL_SYMMETRIES = SYMMETRY_FLIP_X | SYMMETRY_FLIP_Y | SYMMETRY_ROTATE;
+    static final int SYMMETRY_TERRAIN_BITS = TERRAIN_WALL_BIT | TERRAIN_SPAWN_ZONE_BIT;
+    static final int SYMMETRY_INDEX = EXPLORED_SECTORS_FIRST_INDEX + EXPLORED_SECTORS_NUM_INDEXES;
+    static int ruledOutSymmetries = 0;
+    static boolean isSymmetryResolved = false; // at most one hypothesis is left
+    static int[] symmetryCheckQueue = null; // every tile we sense, queued from the first turn on
+    static final int SYMMETRY_INIT_MIN_BYTECODES_LEFT = 10000;
+    static int symmetryCheckQueueHead = 0;
+    static int symmetryCheckQueueTail = 0;
+    static MapLocation[] allySpawnCenters = null;
+    static MapLocation[] predictedEnemyFlagLocs = null;
+    static int numPredictedEnemyFlagLocs = 0;
+    static MapLocation nearestPredictedEnemyFlagLoc = null;
+    static boolean areEnemyFlagLocsPredicted = false;
+    static int mirrorX(int symmetry, int x, int mapWidth) {
+        return symmetry == SYMMETRY_FLIP_Y ? x : mapWidth - 1 - x;
+    }
+    static int mirrorY(int symmetry, int y, int mapHeight) {
+        return symmetry == SYMMETRY_FLIP_X ? y : mapHeight - 1 - y;
+    }
+    static void initSymmetryInference(RobotController rc) {
+        final int mw = rc.getMapWidth();
+        final int mh = rc.getMapHeight();
+        final MapLocation[] spawnLocs = rc.getAllySpawnLocations();
+        final TileSet allySpawns = new TileSet(mw, mh);
+        for(MapLocation ml : spawnLocs) {
+            allySpawns.add(ml);
+        }
+        // The mirror of an ally spawn tile is an enemy spawn tile, so it cannot be one of ours.
+        for(int s = 1; s <= ALL_SYMMETRIES; s <<= 1) {
+            for(MapLocation ml : spawnLocs) {
+                if(allySpawns.contains(new MapLocation(mirrorX(s, ml.x, mw), mirrorY(s, ml.y, mh)))) {
+                    ruledOutSymmetries |= s;
+                    break;
+                }
+            }
+        }
+        int numCenters = 0;
+        final MapLocation[] centers = new MapLocation[GameConstants.NUMBER_FLAGS];
+        for(MapLocation ml : spawnLocs) {
+            if(numCenters < centers.length
+                && allySpawns.contains(ml.add(Direction.NORTH))
+                && allySpawns.contains(ml.add(Direction.EAST))
+                && allySpawns.contains(ml.add(Direction.SOUTH))
+                && allySpawns.contains(ml.add(Direction.WEST))
+            ) {
+                centers[numCenters] = ml;
+                numCenters++;
+            }
+        }
+        allySpawnCenters = new MapLocation[numCenters];
+        System.arraycopy(centers, 0, allySpawnCenters, 0, numCenters);
+        predictedEnemyFlagLocs = new MapLocation[numCenters];
+        isSymmetryResolved = Integer.bitCount(ALL_SYMMETRIES & ~ruledOutSymmetries) <= 1;
+    }
+    static void queueSymmetryCheck(int x, int y) {
+        symmetryCheckQueue[symmetryCheckQueueTail] = (x << 8) | y;
+        symmetryCheckQueueTail++;
+        registerBackgroundTask(TASK_SYMMETRY);
+    }
+    static boolean advanceSymmetryInference(RobotController rc) throws GameActionException {
+        if(allySpawnCenters == null) {
+            // Too expensive for the first turn's init, which is nearly out of bytecode already.
+            if(Clock.getBytecodesLeft() < SYMMETRY_INIT_MIN_BYTECODES_LEFT) {
+                return true;
+            }
+            initSymmetryInference(rc);
+        }
+        final int shared = rc.readSharedArray(SYMMETRY_INDEX);
+        int ruledOut = ruledOutSymmetries | shared;
+        final int mw = rc.getMapWidth();
+        final int mh = rc.getMapHeight();
+        final int[] queue = symmetryCheckQueue;
+        int head = symmetryCheckQueueHead;
+        final int tail = symmetryCheckQueueTail;
+        while(head < tail
+            && Integer.bitCount(ALL_SYMMETRIES & ~ruledOut) > 1
+            && Clock.getBytecodesLeft() > BACKGROUND_TASK_MIN_BYTECODES_LEFT
+        ) {
+            final int packed = queue[head];
+            head++;
+            final int x = packed >> 8;
+            final int y = packed & 0b11111111;
+            final int t = terrainMap[x][y] & SYMMETRY_TERRAIN_BITS;
+            for(int s = 1; s <= ALL_SYMMETRIES; s <<= 1) {
+                if((ruledOut & s) == 0) {
+                    final int m = terrainMap[mirrorX(s, x, mw)][mirrorY(s, y, mh)];
+                    if(m != 0 && (m & SYMMETRY_TERRAIN_BITS) != t) {
+                        ruledOut |= s;
+                    }
+                }
+            }
+        }
+        symmetryCheckQueueHead = head;
+        if((ruledOut | shared) != shared) {
+            rc.writeSharedArray(SYMMETRY_INDEX, ruledOut | shared);
+        }
+        ruledOutSymmetries = ruledOut;
+        isSymmetryResolved = Integer.bitCount(ALL_SYMMETRIES & ~ruledOut) <= 1;
+        return head < tail && !isSymmetryResolved;
+    }
+    /**
+     * Picks up what the team has ruled out, predicts the enemy flags once the symmetry is known,
+     * and drops predictions we can see are wrong.
+     */
+    static void updatePredictedEnemyFlagLocs(RobotController rc) throws GameActionException {
+        // A teammate may resolve the symmetry before our own task has found the spawn centers to mirror.
+        if(allySpawnCenters == null) {
+            return;
+        }
+        if(!areEnemyFlagLocsPredicted) {
+            ruledOutSymmetries |= rc.readSharedArray(SYMMETRY_INDEX);
+            final int live = ALL_SYMMETRIES & ~ruledOutSymmetries;
+            isSymmetryResolved = Integer.bitCount(live) <= 1;
+            areEnemyFlagLocsPredicted = isSymmetryResolved;
+            if(Integer.bitCount(live) == 1) {
+                final int mw = rc.getMapWidth();
+                final int mh = rc.getMapHeight();
+                for(MapLocation ml : allySpawnCenters) {
+                    predictedEnemyFlagLocs[numPredictedEnemyFlagLocs] =
+                        new MapLocation(mirrorX(live, ml.x, mw), mirrorY(live, ml.y, mh));
+                    numPredictedEnemyFlagLocs++;
+                }
+            }
+        }
+        nearestPredictedEnemyFlagLoc = null;
+        int minDist = MY_INF;
+        for(int k = numPredictedEnemyFlagLocs - 1; k >= 0; k--) {
+            final MapLocation ml = predictedEnemyFlagLocs[k];
+            boolean isDisproven = rc.canSenseLocation(ml);
+            for(int i = 0; i < sensedEnemyFlagsLength && isDisproven; i++) {
+                if(ml.equals(sensedEnemyFlags[i].getLocation())) {
+                    isDisproven = false;
+                }
+            }
+            if(isDisproven) {
+                numPredictedEnemyFlagLocs--;
+                predictedEnemyFlagLocs[k] = predictedEnemyFlagLocs[numPredictedEnemyFlagLocs];
+                predictedEnemyFlagLocs[numPredictedEnemyFlagLocs] = null;
+            } else {
+                final int dist = myLocation.distanceSquaredTo(ml);
+                if(dist < minDist) {
+                    minDist = dist;
+                    nearestPredictedEnemyFlagLoc = ml;
+                }
+            }
+        }
+    }
+
+    // Spawn scheduler.  A robot close enough to one of our spawn zone centers to see all nine of its tiles
+    // publishes the zone's pressure in its word from SPAWN_PRESSURE_FIRST_INDEX:
+    //   bits 12-15: round & 15 when written
+    //   bits 8-11:  occupied tiles of the zone
+    //   bits 4-7:   enemies we see within SPAWN_PRESSURE_RADIUS_SQUARED of the center (at most 15)
+    //   bits 0-3:   friends we see there, ourselves included (at most 15)
+    // An unspawned robot tries the tiles of the most outnumbered contested zone first, then
+    // lastSpawLocation, then every other tile from a random start, until canSpawn succeeds,
+    // so an occupied tile no longer costs it the turn.
+    // The zones are the allySpawnCenters found by the symmetry task's first step; until then we just scan.
+    static final int SPAWN_PRESSURE_FIRST_INDEX = 1 + SYMMETRY_INDEX;
+    static final int SPAWN_PRESSURE_NUM_INDEXES = GameConstants.NUMBER_FLAGS;
+    static final int SPAWN_PRESSURE_SENSE_DISTANCE_SQUARED = 10; // every tile of the zone is within vision
+    static final int SPAWN_PRESSURE_RADIUS_SQUARED = GameConstants.VISION_RADIUS_SQUARED;
+    static final int SPAWN_PRESSURE_MAX_AGE = 2;
+    static final int SPAWN_PRESSURE_COUNT_MASK = 0b1111;
+    static void publishSpawnPressure(RobotController rc) throws GameActionException {
+        if(allySpawnCenters == null) {
+            return;
+        }
+        for(int z = 0; z < allySpawnCenters.length; z++) {
+            final MapLocation center = allySpawnCenters[z];
+            if(myLocation.distanceSquaredTo(center) <= SPAWN_PRESSURE_SENSE_DISTANCE_SQUARED) {
+                int occupied = myLocation.distanceSquaredTo(center) <= ADJACENT_DISTANCE_SQUARED ? 1 : 0;
+                int friends = 1;
+                int enemies = 0;
+                for(int k = nearbyFriendlyRobotsLength - 1; k >= 0; k--) {
+                    final int dist = nearbyFriendlyRobots[k].location.distanceSquaredTo(center);
+                    if(dist <= ADJACENT_DISTANCE_SQUARED) {
+                        occupied++;
+                    }
+                    if(dist <= SPAWN_PRESSURE_RADIUS_SQUARED) {
+                        friends++;
+                    }
+                }
+                for(int k = nearbyEnemyRobotsLength - 1; k >= 0; k--) {
+                    final int dist = nearbyEnemyRobots[k].location.distanceSquaredTo(center);
+                    if(dist <= ADJACENT_DISTANCE_SQUARED) {
+                        occupied++;
+                    }
+                    if(dist <= SPAWN_PRESSURE_RADIUS_SQUARED) {
+                        enemies++;
+                    }
+                }
+                final int word = ((roundNumAtStartOfIteration & SPAWN_PRESSURE_COUNT_MASK) << 12)
+                    | (Math.min(occupied, SPAWN_PRESSURE_COUNT_MASK) << 8)
+                    | (Math.min(enemies, SPAWN_PRESSURE_COUNT_MASK) << 4)
+                    | Math.min(friends, SPAWN_PRESSURE_COUNT_MASK);
+                if(rc.readSharedArray(SPAWN_PRESSURE_FIRST_INDEX + z) != word) {
+                    rc.writeSharedArray(SPAWN_PRESSURE_FIRST_INDEX + z, word);
+                }
+                return;
+            }
+        }
+    }
+    /** Returns a tile we can spawn at, or null if every spawn tile is taken. */
+    static MapLocation pickSpawnLocation(RobotController rc) throws GameActionException {
+        final MapLocation[] spawnLocs = rc.getAllySpawnLocations();
+        final int start = rng.nextInt(spawnLocs.length);
+        if(allySpawnCenters != null && roundNumAtStartOfIteration >= GameConstants.SETUP_ROUNDS) {
+            MapLocation contestedCenter = null;
+            int maxNeed = -MY_INF;
+            for(int z = 0; z < allySpawnCenters.length; z++) {
+                final int word = rc.readSharedArray(SPAWN_PRESSURE_FIRST_INDEX + z);
+                final int enemies = (word >> 4) & SPAWN_PRESSURE_COUNT_MASK;
+                if(enemies > 0
+                    && ((roundNumAtStartOfIteration - (word >> 12)) & SPAWN_PRESSURE_COUNT_MASK) <= SPAWN_PRESSURE_MAX_AGE
+                    && ((word >> 8) & SPAWN_PRESSURE_COUNT_MASK) < 9
+                    && enemies - (word & SPAWN_PRESSURE_COUNT_MASK) > maxNeed
+                ) {
+                    maxNeed = enemies - (word & SPAWN_PRESSURE_COUNT_MASK);
+                    contestedCenter = allySpawnCenters[z];
+                }
+            }
+            if(contestedCenter != null) {
+                for(int i = spawnLocs.length - 1; i >= 0; i--) {
+                    final MapLocation ml = spawnLocs[(start + i) % spawnLocs.length];
+                    if(ml.distanceSquaredTo(contestedCenter) <= ADJACENT_DISTANCE_SQUARED && rc.canSpawn(ml)) {
+                        return ml;
+                    }
+                }
+            }
+        }
+        if(lastSpawLocation != null && rc.canSpawn(lastSpawLocation)) {
+            return lastSpawLocation;
+        }
+        for(int i = spawnLocs.length - 1; i >= 0; i--) {
+            final MapLocation ml = spawnLocs[(start + i) % spawnLocs.length];
+            if(rc.canSpawn(ml)) {
+                return ml;
+            }
+        }
+        return null;
+    }
+
+    static final int CALL_FOR_ASSISTANCE_EXPIRATION = 10;
+    static final int CALL_FOR_ASSISTANCE_MAX_DISTANCE_SQUARED = 20*20;
+    static enum CallForAssistanceType {
+        // LOWER VALUE TYPES TAKE PRIORITY OVER HIGHER VALUE TYPES
+        HAVE_ENEMY_FLAG(1),
+        ENEMY_HAS_OUR_FLAG(2),
+        ENEMY_NEAR_OUR_FLAG(3);
+        int value;
+        CallForAssistanceType(int value) {
+            this.value = value;
+        }
+        static final CallForAssistanceType[] BY_VALUE = {null, HAVE_ENEMY_FLAG, ENEMY_HAS_OUR_FLAG, ENEMY_NEAR_OUR_FLAG};
+        static CallForAssistanceType valueOf(int value) {
+            return BY_VALUE[value];
+        }
+    };
+
+    // Message bus: a ring buffer of two-word messages in the shared array.
+    // The header word counts every message ever written (mod 1 << 16).  The next message goes
+    // in slot (count % MESSAGE_BUS_NUM_SLOTS), and each robot only reads the slots written
+    // since its own cursor.
+    // A message's first word packs x (6 bits), y (6 bits) and the type value (2 bits, 0 is never
+    // written); its second word is the round it was written in, whole, so a robot that missed turns
+    // still dates what it reads correctly.
+    static final int MESSAGE_BUS_COUNT_MASK = 0xFFFF;
+    static int messageBusCursor = 0;
+    static int encodeMessage(MapLocation loc, int typeValue) {
+        return (loc.x << 8) | (loc.y << 2) | typeValue;
+    }
+    static void writeMessage(RobotController rc, MapLocation loc, int typeValue) throws GameActionException {
+        final int count = rc.readSharedArray(MESSAGE_BUS_HEADER_INDEX);
+        final int slotIndex = MESSAGE_BUS_FIRST_SLOT_INDEX + (count % MESSAGE_BUS_NUM_SLOTS) * MESSAGE_BUS_WORDS_PER_SLOT;
+        rc.writeSharedArray(slotIndex, encodeMessage(loc, typeValue));
+        rc.writeSharedArray(slotIndex + 1, roundNumAtStartOfIteration);
+        rc.writeSharedArray(MESSAGE_BUS_HEADER_INDEX, (count + 1) & MESSAGE_BUS_COUNT_MASK);
+    }
+    static void readMessageBus(RobotController rc) throws GameActionException {
+        final int count = rc.readSharedArray(MESSAGE_BUS_HEADER_INDEX);
+        int numNew = (count - messageBusCursor) & MESSAGE_BUS_COUNT_MASK;
+        if(numNew > MESSAGE_BUS_NUM_SLOTS) {
+            numNew = MESSAGE_BUS_NUM_SLOTS; // the older ones have been overwritten
+        }
+        for(int k = numNew; k >= 1; k--) {
+            final int slotIndex = MESSAGE_BUS_FIRST_SLOT_INDEX
+                + (((count - k) & MESSAGE_BUS_COUNT_MASK) % MESSAGE_BUS_NUM_SLOTS) * MESSAGE_BUS_WORDS_PER_SLOT;
+            final int msg = rc.readSharedArray(slotIndex);
+            recordCallForAssistance(msg >> 2, msg & 0b11, rc.readSharedArray(slotIndex + 1));
+        }
+        messageBusCursor = count;
+    }
+
+    // The calls for assistance we know of, with locations packed as (x << 6) | y.
+    static final int MAX_KNOWN_CALLS_FOR_ASSISTANCE = 16;
+    static final int[] knownCallLocs = new int[MAX_KNOWN_CALLS_FOR_ASSISTANCE];
+    static final int[] knownCallTypeValues = new int[MAX_KNOWN_CALLS_FOR_ASSISTANCE];
+    static final int[] knownCallRounds = new int[MAX_KNOWN_CALLS_FOR_ASSISTANCE];
+    static int numKnownCalls = 0;
+    static void recordCallForAssistance(int packedLoc, int typeValue, int roundNum) {
+        int oldestIdx = 0;
+        for(int k = 0; k < numKnownCalls; k++) {
+            if(knownCallLocs[k] == packedLoc && knownCallTypeValues[k] == typeValue) {
+                if(roundNum > knownCallRounds[k]) {
+                    knownCallRounds[k] = roundNum;
+                }
+                return;
+            }
+            if(knownCallRounds[k] < knownCallRounds[oldestIdx]) {
+                oldestIdx = k;
+            }
+        }
+        final int idx = numKnownCalls < MAX_KNOWN_CALLS_FOR_ASSISTANCE ? numKnownCalls++ : oldestIdx;
+        knownCallLocs[idx] = packedLoc;
+        knownCallTypeValues[idx] = typeValue;
+        knownCallRounds[idx] = roundNum;
+    }
+    /**
+     * Drops expired calls and picks the one to answer: the highest priority type
+     * within CALL_FOR_ASSISTANCE_MAX_DISTANCE_SQUARED, nearest first.
+     */
+    static void selectCallForAssistance(RobotController rc) {
+        final int roundNum = roundNumAtStartOfIteration;
+        final MapLocation myLoc = myLocation;
+        int bestIdx = -1;
+        int bestDist = MY_INF;
+        for(int k = numKnownCalls - 1; k >= 0; k--) {
+            if(roundNum - knownCallRounds[k] >= CALL_FOR_ASSISTANCE_EXPIRATION) {
+                numKnownCalls--;
+                knownCallLocs[k] = knownCallLocs[numKnownCalls];
+                knownCallTypeValues[k] = knownCallTypeValues[numKnownCalls];
+                knownCallRounds[k] = knownCallRounds[numKnownCalls];
+                if(bestIdx == numKnownCalls) {
+                    bestIdx = k;
+                }
+                continue;
+            }
+            final int dx = (knownCallLocs[k] >> 6) - myLoc.x;
+            final int dy = (knownCallLocs[k] & 0b111111) - myLoc.y;
+            final int dist = dx * dx + dy * dy;
+            if(dist < CALL_FOR_ASSISTANCE_MAX_DISTANCE_SQUARED
+                && (bestIdx == -1
+                    || knownCallTypeValues[k] < knownCallTypeValues[bestIdx]
+                    || (knownCallTypeValues[k] == knownCallTypeValues[bestIdx] && dist < bestDist)
+                )
+            ) {
+                bestIdx = k;
+                bestDist = dist;
+            }
+        }
+        if(bestIdx == -1) {
+            callForAssitanceLoc = null;
+            callForAssistanceType = null;
+            callForAssistanceRoundNum = 0;
+        } else {
+            callForAssitanceLoc = new MapLocation(knownCallLocs[bestIdx] >> 6, knownCallLocs[bestIdx] & 0b111111);
+            callForAssistanceType = CallForAssistanceType.valueOf(knownCallTypeValues[bestIdx]);
+            callForAssistanceRoundNum = knownCallRounds[bestIdx];
+        }
+    }
+    static void callForAssistance(
+        RobotController rc,
+        MapLocation locToSend,
+        CallForAssistanceType type
+    ) throws GameActionException {
+        // Skip the write if someone (maybe us) made the same call from about here last round or this round.
+        final int roundNum = roundNumAtStartOfIteration;
+        for(int k = 0; k < numKnownCalls; k++) {
+            if(knownCallTypeValues[k] == type.value
+                && roundNum - knownCallRounds[k] <= 1
+            ) {
+                final int dx = (knownCallLocs[k] >> 6) - locToSend.x;
+                final int dy = (knownCallLocs[k] & 0b111111) - locToSend.y;
+                if(dx * dx + dy * dy <= ADJACENT_DISTANCE_SQUARED) {
+                    return;
+                }
+            }
+        }
+        writeMessage(rc, locToSend, type.value);
+        recordCallForAssistance((locToSend.x << 6) | locToSend.y, type.value, roundNum);
+    }
+
+
+    static MapLocation getNearestSpawnLoc(RobotController rc) throws GameActionException {
+        MapLocation[] spawnLocs = rc.getAllySpawnLocations();
+        MapLocation bestSpawnLoc = null;
+        for(int k = 0; k < spawnLocs.length; k++) {
+            if(
+                bestSpawnLoc == null
+                || (
+                    myLocation.distanceSquaredTo(spawnLocs[k])
+                    < myLocation.distanceSquaredTo(bestSpawnLoc)
+                )
+            ) {
+                bestSpawnLoc = spawnLocs[k];
+            }
+        }
+        return bestSpawnLoc;
+    }
+
+    // Every broadcast location we have ever seen goes into seenBroadcastLocs, so that
+    // eliminated locations are not added back.  The ones not eliminated yet are kept
+    // packed at the front of activeBroadcastLocs, with the round each was added.
+    // When it is full, a new location replaces the oldest one, since broadcasts go stale.
+    static final int MAX_ACTIVE_BROADCAST_LOCS = 32;
+    static final MapLocation[] activeBroadcastLocs = new MapLocation[MAX_ACTIVE_BROADCAST_LOCS];
+    static final int[] activeBroadcastLocRounds = new int[MAX_ACTIVE_BROADCAST_LOCS];
+    static int numActiveBroadcastLocs = 0;
+    static TileSet seenBroadcastLocs = null;
+    static MapLocation nearestBroadcastLoc = null;
+    static void manageEnemyFlagBroadcastData(RobotController rc) {
+
+        // This method is hard to use.
+        // The length of the returned array is not fixed.
+        // Flags that have been scored are not included.
+        // Flags that are picked up are not included.
+        // So the array can be empty.
+        // The locations broadcasted are based on the default location, even when the flag is sitting somewhere else.
+        // Also, I tested to determine whether these MapLocations are always on the map, and yes, all map locations returned by this method are on the map.
+        MapLocation [] data = rc.senseBroadcastFlagLocations();
+
+        for(MapLocation ml : data) {
+            if(!seenBroadcastLocs.contains(ml)) {
+                seenBroadcastLocs.add(ml);
+                int slot = numActiveBroadcastLocs;
+                if(slot < MAX_ACTIVE_BROADCAST_LOCS) {
+                    numActiveBroadcastLocs++;
+                } else {
+                    slot = 0;
+                    for(int k = 1; k < MAX_ACTIVE_BROADCAST_LOCS; k++) {
+                        if(activeBroadcastLocRounds[k] < activeBroadcastLocRounds[slot]) {
+                            slot = k;
+                        }
+                    }
+                }
+                activeBroadcastLocs[slot] = ml;
+                activeBroadcastLocRounds[slot] = roundNumAtStartOfIteration;
+            }
+        }
+
+        nearestBroadcastLoc = null;
+        int nearestBroadcastLocIdx = -1;
+        int minDistSqd = MY_INF;
+        for(int k = 0; k < numActiveBroadcastLocs; k++) {
+            final int distSqd = myLocation.distanceSquaredTo(activeBroadcastLocs[k]);
+            if(distSqd < minDistSqd) {
+                nearestBroadcastLoc = activeBroadcastLocs[k];
+                nearestBroadcastLocIdx = k;
+                minDistSqd = distSqd;
+            }
+        }
+
+        if(nearestBroadcastLoc != null) {
+            boolean isNearestBroadcastLocStillPossible = false;
+            for(MapLocation ml : data) {
+                if(nearestBroadcastLoc.distanceSquaredTo(ml) <= 4 * GameConstants.FLAG_BROADCAST_NOISE_RADIUS) {
+                    isNearestBroadcastLocStillPossible = true;
+                }
+            }
+
+            // String debug = "";
+            // for(MapLocation ml : data) {debug += ml.toString();}
+            // rc.setIndicatorString(debug);
+
+            if(myLocation.distanceSquaredTo(nearestBroadcastLoc) <= 6) { // I tried increasing this to 20.  It lost 17-21 (lost 17 out of 38 matches) against the previous version.
+                if(sensedEnemyFlagsLength == 0) {
+                    isNearestBroadcastLocStillPossible = false;
+                }
+            }
+
+            if(!isNearestBroadcastLocStillPossible) {
+                numActiveBroadcastLocs--;
+                activeBroadcastLocs[nearestBroadcastLocIdx] = activeBroadcastLocs[numActiveBroadcastLocs];
+                activeBroadcastLocRounds[nearestBroadcastLocIdx] = activeBroadcastLocRounds[numActiveBroadcastLocs];
+                activeBroadcastLocs[numActiveBroadcastLocs] = null;
+            }
+        }
+    }
+
+
+    static int getIntFromMapLocation(MapLocation ml) throws GameActionException {
+        assert ml.x >= 0 && ml.y >= 0;
+        return (ml.x << 8) | ml.y;
+    }
+    static MapLocation getMapLocationFromInt(int i) throws GameActionException {
+        assert i < (1 << 16);
+        return new MapLocation(i >> 8, i & 0b11111111);
+    }
+
+    // Enemy flag memory in parallel arrays; locations are packed with getIntFromMapLocation.
+    static final int[] flagMemoryIds = new int[GameConstants.NUMBER_FLAGS];
+    static final int[] flagMemoryLocs = new int[GameConstants.NUMBER_FLAGS];
+    static final int[] flagMemoryWhenFirst = new int[GameConstants.NUMBER_FLAGS];
+    static final int[] flagMemoryWhenLast = new int[GameConstants.NUMBER_FLAGS];
+    static int flagMemoryLength = 0;
+    static boolean hasFlagMemoryChangedSinceSync = false;
+    // Our copy of the enemy flag table in the shared array, indexed by slot.
+    // Every write to the table bumps the version word, so while the version is the one we
+    // last read, this copy is exact and the table does not need to be read again.
+    static final int[] sharedFlagIds = new int[GameConstants.NUMBER_FLAGS];
+    static final int[] sharedFlagLocs = new int[GameConstants.NUMBER_FLAGS];
+    static final int[] sharedFlagRounds = new int[GameConstants.NUMBER_FLAGS];
+    static int sharedFlagTableVersion = 0;
+    static int findFlagMemoryIdx(int flagId) {
+        for(int k = 0; k < flagMemoryLength; k++) {
+            if(flagMemoryIds[k] == flagId) {
+                return k;
+            }
+        }
+        return -1;
+    }
+    static int addToFlagMemory(int flagId, int loc, int roundNum) {
+        assert flagMemoryLength < GameConstants.NUMBER_FLAGS; // callers only add flags we have no entry for
+        final int idx = flagMemoryLength;
+        flagMemoryLength++;
+        flagMemoryIds[idx] = flagId;
+        flagMemoryLocs[idx] = loc;
+        flagMemoryWhenFirst[idx] = flagMemoryWhenLast[idx] = roundNum;
+        return idx;
+    }
+    static void writeEnemyFlagToSharedArray(
+        RobotController rc, int slot, int memIdx
+    ) throws GameActionException {
+        final int indexOffset = slot * ENEMY_FLAG_INDEX_OFFSET;
+        rc.writeSharedArray(FIRST_ENEMY_FLAG_ID_INDEX + indexOffset, flagMemoryIds[memIdx]);
+        rc.writeSharedArray(FIRST_ENEMY_FLAG_LOC_INDEX + indexOffset, flagMemoryLocs[memIdx]);
+        rc.writeSharedArray(FIRST_ENEMY_FLAG_ROUND_INDEX + indexOffset, flagMemoryWhenLast[memIdx]);
+        sharedFlagIds[slot] = flagMemoryIds[memIdx];
+        sharedFlagLocs[slot] = flagMemoryLocs[memIdx];
+        sharedFlagRounds[slot] = flagMemoryWhenLast[memIdx];
+    }
+    static void updateFlagMemoryFromSensedFlags(RobotController rc) throws GameActionException {
+        for(int i = 0; i < sensedEnemyFlagsLength; i++) {
+            final FlagInfo fi = sensedEnemyFlags[i];
+            if(!fi.isPickedUp()) {
+                final int loc = getIntFromMapLocation(fi.getLocation());
+                final int idx = findFlagMemoryIdx(fi.getID());
+                if(idx == -1) {
+                    addToFlagMemory(fi.getID(), loc, roundNumAtStartOfIteration);
+                } else if(flagMemoryLocs[idx] == loc) {
+                    flagMemoryWhenLast[idx] = roundNumAtStartOfIteration;
+                } else {
+                    flagMemoryLocs[idx] = loc;
+                    flagMemoryWhenFirst[idx] = roundNumAtStartOfIteration;
+                    flagMemoryWhenLast[idx] = roundNumAtStartOfIteration;
+                }
+                hasFlagMemoryChangedSinceSync = true;
+            }
+        }
+    }
+    static void synchronizeFlagMemoryWithSharedArray(RobotController rc) throws GameActionException {
+        final int version = rc.readSharedArray(ENEMY_FLAG_TABLE_VERSION_INDEX);
+        if(version == sharedFlagTableVersion && !hasFlagMemoryChangedSinceSync) {
+            return;
+        }
+        if(version != sharedFlagTableVersion) {
+            sharedFlagTableVersion = version;
+            for(int slot = 0; slot < GameConstants.NUMBER_FLAGS; slot++) {
+                final int indexOffset = slot * ENEMY_FLAG_INDEX_OFFSET;
+                final int flagId = rc.readSharedArray(FIRST_ENEMY_FLAG_ID_INDEX + indexOffset);
+                sharedFlagIds[slot] = flagId;
+                if(flagId != 0) {
+                    final int loc = rc.readSharedArray(FIRST_ENEMY_FLAG_LOC_INDEX + indexOffset);
+                    final int roundNum = rc.readSharedArray(FIRST_ENEMY_FLAG_ROUND_INDEX + indexOffset);
+                    sharedFlagLocs[slot] = loc;
+                    sharedFlagRounds[slot] = roundNum;
+                    final int idx = findFlagMemoryIdx(flagId);
+                    if(idx == -1) {
+                        addToFlagMemory(flagId, loc, roundNum);
+                    } else if(roundNum > flagMemoryWhenLast[idx]) {
+                        flagMemoryWhenLast[idx] = roundNum;
+                        flagMemoryLocs[idx] = loc;
+                    }
+                }
+            }
+        }
+        boolean didWrite = false;
+        for(int idx = 0; idx < flagMemoryLength; idx++) {
+            int slot = -1;
+            int firstEmptySlot = -1;
+            for(int k = 0; k < GameConstants.NUMBER_FLAGS; k++) {
+                if(sharedFlagIds[k] == flagMemoryIds[idx]) {
+                    slot = k;
+                }
+                if(sharedFlagIds[k] == 0 && firstEmptySlot == -1) {
+                    firstEmptySlot = k;
+                }
+            }
+            if(slot == -1) {
+                assert firstEmptySlot >= 0;
+                writeEnemyFlagToSharedArray(rc, firstEmptySlot, idx);
+                didWrite = true;
+            } else if(flagMemoryWhenLast[idx] > sharedFlagRounds[slot]
+                && flagMemoryWhenLast[idx] - flagMemoryWhenFirst[idx]
+                    >= 2 + myFlagDroppedResetRounds
+            ) {
+                writeEnemyFlagToSharedArray(rc, slot, idx);
+                didWrite = true;
+            }
+        }
+        if(didWrite) {
+            sharedFlagTableVersion = (sharedFlagTableVersion + 1) % (GameConstants.MAX_SHARED_ARRAY_VALUE + 1);
+            rc.writeSharedArray(ENEMY_FLAG_TABLE_VERSION_INDEX, sharedFlagTableVersion);
+        }
+        hasFlagMemoryChangedSinceSync = false;
+    }
+    static int getDistanceSquaredToPackedLoc(MapLocation ml, int packedLoc) {
+        final int dx = (packedLoc >> 8) - ml.x;
+        final int dy = (packedLoc & 0b11111111) - ml.y;
+        return dx * dx + dy * dy;
+    }
+    static final int ENEMY_FLAG_MEMORY_MAX_AGE = 20;
+    static MapLocation nearestNonexpiredEnemyFlagLoc = null;
+    static void updateNearestKnownEnemyFlagLocAndRound(RobotController rc) throws GameActionException {
+        int nearestIdx = -1;
+        int minDist = MY_INF;
+        for(int idx = 0; idx < flagMemoryLength; idx++) {
+            if(roundNumAtStartOfIteration - flagMemoryWhenLast[idx] <= ENEMY_FLAG_MEMORY_MAX_AGE
+                && (nearestIdx == -1
+                    || getDistanceSquaredToPackedLoc(myLocation, flagMemoryLocs[idx]) < minDist
+                )
+            ) {
+                nearestIdx = idx;
+            }
+        }
+        nearestNonexpiredEnemyFlagLoc = nearestIdx == -1 ? null : getMapLocationFromInt(flagMemoryLocs[nearestIdx]);
+    }
+    static void manageEnemyFlagKnowledge(RobotController rc) throws GameActionException {
+        updateFlagMemoryFromSensedFlags(rc);
+        synchronizeFlagMemoryWithSharedArray(rc);
+        updateNearestKnownEnemyFlagLocAndRound(rc);
+        updatePredictedEnemyFlagLocs(rc);
+        updateEnemyFlagFieldSources();
+    }
+
+    static void callForHelpIfEnemiesApproachFlag(RobotController rc) throws GameActionException {
+        boolean isOnFlag = false;
+        for(int i = 0; i < sensedFriendlyFlagsLength; i++) {
+            final FlagInfo fi = sensedFriendlyFlags[i];
+            if(fi.isPickedUp()
+                && roundNumAtStartOfIteration > GameConstants.SETUP_ROUNDS
+            ) {
+                callForAssistance(rc, fi.getLocation(), CallForAssistanceType.ENEMY_HAS_OUR_FLAG);
+            }
+            if(myLocation.equals(fi.getLocation())) {
+                isOnFlag = true;
+            }
+        }
+        // Standing on an enemy flag means carrying it, which counts too.
+        for(int i = 0; i < sensedEnemyFlagsLength; i++) {
+            if(myLocation.equals(sensedEnemyFlags[i].getLocation())) {
+                isOnFlag = true;
+            }
+        }
+
+        // I tried removing this.  The difference was small, but it lost about 1 more match than it won, over many matches.
+        if(isOnFlag
+            && nearestEnemyRobot != null
+            && myLocation.distanceSquaredTo(nearestEnemyRobot.getLocation()) <= 8
+        ) {
+            callForAssistance(rc, myLocation, CallForAssistanceType.ENEMY_NEAR_OUR_FLAG);
+        }
+    }
+
+    static interface CanMove {
+        boolean test(RobotController rc, Direction d) throws GameActionException;
+    }
+    static CanMove defaultCanMove = (rc, d) -> rc.canMove(d);
+    // Bit k is set if rc.canMove(MOVEMENT_DIRECTIONS[k]).
+    // Computed once per turn and refreshed after anything that can change it (moving, filling, picking up a flag).
+    static int canMoveMask = 0;
+    static void refreshCanMoveMask(RobotController rc) {
+        canMoveMask = rc.isMovementReady() ? Neighbors.computeCanMoveMask(rc) : 0;
+    }
+    static int getCanMoveMask(RobotController rc, CanMove canMove) throws GameActionException {
+        if(canMove == defaultCanMove) {
+            return canMoveMask;
+        }
+        int mask = 0;
+        for(int k = 0; k < MOVEMENT_DIRECTIONS.length; k++) {
+            if(canMove.test(rc, MOVEMENT_DIRECTIONS[k])) {
+                mask |= 1 << k;
+            }
+        }
+        return mask;
+    }
+
+    static enum HybridStatus {FUZZY, BUG;}
+    static HybridStatus hybridStatus = HybridStatus.FUZZY;
+    static MapLocation bugObstacle = null;
+    static TileSet bugMemory = null;
+    static boolean isBugRotatingLeft = false;
+    static int bugStartDistFromDest = -1;
+    static MapLocation hybridMoveLastCallEndLoc = null;
+    static MapLocation hybridMoveLastCallDest = null;
+    static void startBug(RobotController rc, MapLocation dest) {
+        hybridStatus = HybridStatus.BUG;
+        bugObstacle = rc.adjacentLocation(myLocation.directionTo(dest));
+        bugMemory.clear();
+        isBugRotatingLeft = rng.nextBoolean();
+        bugStartDistFromDest = myLocation.distanceSquaredTo(dest);
+    }
+    static void endBugStartFuzzy() {
+        hybridStatus = HybridStatus.FUZZY;
+        bugObstacle = null;
+        bugStartDistFromDest = -1;
+    }
+    static int dot(Direction d1, Direction d2) {
+        return (d1.dx*d2.dx) + (d1.dy*d2.dy);
+    }
+    static int dot(MapLocation start1, MapLocation end1, MapLocation start2, MapLocation end2) {
+        return (end1.x - start1.x)*(end2.x - start2.x) + (end1.y - start1.y)*(end2.y - start2.y);
+    }
+    static boolean bugCanMove(RobotController rc, Direction d, CanMove canMove) throws GameActionException {
+        return canMove.test(rc, d);
+    }
+    static Direction getRotated(Direction d, boolean left) {
+        return left ? d.rotateLeft() : d.rotateRight();
+    }
+    static void hybridMove(RobotController rc, MapLocation dest) throws GameActionException {
+        hybridMove(rc, dest, defaultCanMove);
+    }
+    static void hybridMove(RobotController rc, MapLocation dest, CanMove canMove) throws GameActionException {
+        if(rc.isMovementReady()) {
+            if(hybridMoveLastCallEndLoc == null
+                || !hybridMoveLastCallEndLoc.equals(myLocation)
+                || hybridMoveLastCallDest == null
+                || !hybridMoveLastCallDest.equals(dest)
+            ) {
+                endBugStartFuzzy();
+            }
+            boolean isStuck = false;
+            while(!isStuck
+                && rc.isMovementReady()
+                && !myLocation.equals(dest)
+            ) {
+                isStuck = true;
+                final int pathDirIdx = getSearchedPathDirIndex(myLocation, dest);
+                if(pathDirIdx != -1 && canMove.test(rc, MOVEMENT_DIRECTIONS[pathDirIdx])) {
+                    endBugStartFuzzy();
+                    moveAndUpdateMyVariables(rc, MOVEMENT_DIRECTIONS[pathDirIdx]);
+                    isStuck = false;
+                } else if(HybridStatus.FUZZY.equals(hybridStatus)) {
+                    final MapLocation myLoc = myLocation;
+                    final int best = Neighbors.findNeighborNearestTo(
+                        myLoc.x, myLoc.y, dest.x, dest.y, getCanMoveMask(rc, canMove)
+                    );
+                    if(best != -1) {
+                        final Direction bestDir = MOVEMENT_DIRECTIONS[best & 0b111];
+                        final int bestDist = best >> 3;
+                        isStuck = false;
+                        if(bestDist < myLocation.distanceSquaredTo(dest)) {
+                            moveAndUpdateMyVariables(rc, bestDir);
+                        } else {
+                            // Bug until the search reaches us, or for good if it cannot.
+                            requestPathSearch(rc, dest);
+                            startBug(rc, dest);
+                        }
+                    } // else we're stuck
+                } else if(HybridStatus.BUG.equals(hybridStatus)) {
+                    if(bugMemory.contains(myLocation)) {
+                        endBugStartFuzzy();
+                        isStuck = false;
+                    } else if(myLocation.distanceSquaredTo(dest) <= ADJACENT_DISTANCE_SQUARED
+                        && !bugCanMove(rc, myLocation.directionTo(dest), canMove)
+                    ) {
+                        // If we are adjacent to the dest but cannot move to the dest,
+                        //   then the dest is obstructed, so don't bug away from the dest.
+                        endBugStartFuzzy();
+                        // Let isStuck be true.
+                    } else {
+                        Direction bugDirection = myLocation.directionTo(bugObstacle);
+                        if(bugCanMove(rc, bugDirection, canMove)) {
+                            // The obstacle has moved out of the way
+                            endBugStartFuzzy();
+                            isStuck = false;
+                        } else {
+                            int rotateCount = 0;
+                            while(!bugCanMove(rc, bugDirection, canMove) && rotateCount < 8) {
+                                bugObstacle = rc.adjacentLocation(bugDirection);
+                                bugDirection = getRotated(bugDirection, isBugRotatingLeft);
+                                rotateCount++;
+                            }
+                            if(!bugCanMove(rc, bugDirection, canMove)) {
+                                endBugStartFuzzy();
+                                // We're stuck; we cannot move.
+                                // Let isStuck be true.
+                            } else {
+                                bugMemory.add(myLocation);
+                                moveAndUpdateMyVariables(rc, bugDirection);
+                                isStuck = false;
+                                if(myLocation.distanceSquaredTo(dest) < bugStartDistFromDest) {
+                                    endBugStartFuzzy();
+                                }
+                            }
+                        }
+                    }
+                } // end if hybridStatus equals BUG
+            } // end while
+    // rc.setIndicatorString("hybridMove round" + roundNumAtStartOfIteration + " dest " + dest.toString() + " ending in status " + hybridStatus);
+
+            hybridMoveLastCallEndLoc = myLocation;
+            hybridMoveLastCallDest = dest;
+        }
+    }
+
+    // Time-sliced A* over terrainMap, which hybridMove falls back on when the greedy step is stuck,
+    // before resorting to bug.  Tiles we have never sensed count as passable.
+    // The search runs backward, from the dest toward where we stood when it started, as the
+    // TASK_PATH_SEARCH background task.  Every tile it reaches records the direction of
+    // the tile it was reached from, so following those directions from any reached tile leads to the
+    // dest, even while the search is still running or after we have wandered off the start.
+    // The field stays in use for as long as hybridMove keeps the same dest.
+    // pathSearchField holds (pathSearchId << PATH_SEARCH_ID_SHIFT) | code, where code is 1 + the
+    // direction index toward the dest, or PATH_SEARCH_DEST_CODE at the dest.  Entries with another id
+    // are left over from earlier searches, so the field never needs clearing.
+    // With unit steps and the Chebyshev distance as the heuristic, a tile's f = g + h is at most 2 more
+    // than that of the tile it was reached from and never less, so the open set is three LIFO buckets
+    // for f, f + 1 and f + 2 instead of a heap.
+    static final int PATH_SEARCH_ID_SHIFT = 4;
+    static final int PATH_SEARCH_CODE_MASK = (1 << PATH_SEARCH_ID_SHIFT) - 1;
+    static final int PATH_SEARCH_DEST_CODE = 9;
+    static int[][] pathSearchField = null;
+    static int[][] pathSearchBuckets = null;
+    static final int[] pathSearchBucketSizes = new int[3];
+    static int pathSearchId = 0;
+    static MapLocation pathSearchDest = null;
+    static MapLocation pathSearchStart = null;
+    static int pathSearchF = 0;
+    static boolean isPathSearchRunning = false;
+    static int pathSearchTerrainMapVersion = -1;
+    static void requestPathSearch(RobotController rc, MapLocation dest) {
+        if(dest.equals(pathSearchDest)
+            && (isPathSearchRunning || pathSearchTerrainMapVersion == terrainMapVersion)
+        ) {
+            return; // the search is underway, or learned nothing new since it ended without reaching us
+        }
+        final int mw = rc.getMapWidth();
+        final int mh = rc.getMapHeight();
+        if(pathSearchField == null) {
+            pathSearchField = new int[mw][mh];
+            pathSearchBuckets = new int[3][mw * mh];
+        }
+        pathSearchId++;
+        pathSearchDest = dest;
+        pathSearchStart = myLocation;
+        pathSearchTerrainMapVersion = terrainMapVersion;
+        pathSearchBucketSizes[0] = 0;
+        pathSearchBucketSizes[1] = 0;
+        pathSearchBucketSizes[2] = 0;
+        pathSearchField[dest.x][dest.y] = (pathSearchId << PATH_SEARCH_ID_SHIFT) | PATH_SEARCH_DEST_CODE;
+        pathSearchF = Math.max(Math.abs(dest.x - pathSearchStart.x), Math.abs(dest.y - pathSearchStart.y));
+        pathSearchBuckets[pathSearchF % 3][0] = (dest.x << 8) | dest.y;
+        pathSearchBucketSizes[pathSearchF % 3] = 1;
+        isPathSearchRunning = true;
+        registerBackgroundTask(TASK_PATH_SEARCH);
+    }
+    static boolean advancePathSearch(RobotController rc) {
+        if(!isPathSearchRunning) {
+            return false;
+        }
+        final int mw = rc.getMapWidth();
+        final int mh = rc.getMapHeight();
+        final int[][] field = pathSearchField;
+        final int[][] buckets = pathSearchBuckets;
+        final int[] sizes = pathSearchBucketSizes;
+        final int id = pathSearchId;
+        final int stamp = id << PATH_SEARCH_ID_SHIFT;
+        final int goalX = pathSearchStart.x;
+        final int goalY = pathSearchStart.y;
+        int f = pathSearchF;
+        while(Clock.getBytecodesLeft() > BACKGROUND_TASK_MIN_BYTECODES_LEFT) {
+            final int b = f % 3;
+            if(sizes[b] == 0) {
+                if(sizes[0] + sizes[1] + sizes[2] == 0) {
+                    isPathSearchRunning = false; // the start cannot be reached over what we know
+                    return false;
+                }
+                f++;
+                continue;
+            }
+            sizes[b]--;
+            final int packed = buckets[b][sizes[b]];
+            final int x = (packed >> 8) & 0b11111111;
+            final int y = packed & 0b11111111;
+            final int nextG = (packed >> 16) + 1;
+            for(int k = 0; k < MOVEMENT_DIRECTIONS.length; k++) {
+                final int nx = x + MOVEMENT_DIRECTIONS[k].dx;
+                final int ny = y + MOVEMENT_DIRECTIONS[k].dy;
+                if(nx >= 0 && ny >= 0 && nx < mw && ny < mh
+                    && (field[nx][ny] >> PATH_SEARCH_ID_SHIFT) != id
+                    && (terrainMap[nx][ny] & TERRAIN_IMPASSABLE_BITS) == 0
+                ) {
+                    // Stepping back in direction k + 4 leads toward the dest.
+                    field[nx][ny] = stamp | (((k + 4) & 0b111) + 1);
+                    if(nx == goalX && ny == goalY) {
+                        isPathSearchRunning = false;
+                        return false;
+                    }
+                    final int nextF = nextG + Math.max(Math.abs(nx - goalX), Math.abs(ny - goalY));
+                    final int nb = nextF % 3;
+                    buckets[nb][sizes[nb]] = (nextG << 16) | (nx << 8) | ny;
+                    sizes[nb]++;
+                }
+            }
+        }
+        pathSearchF = f;
+        return true;
+    }
+    /**
+     * Returns the index of the direction the path search field says to step from myLoc toward dest,
+     * or -1 if there is no field for dest or it does not cover myLoc.
+     * Drops the field if its next step turns out to be impassable.
+     */
+    static int getSearchedPathDirIndex(MapLocation myLoc, MapLocation dest) {
+        if(pathSearchDest == null || !pathSearchDest.equals(dest)) {
+            return -1;
+        }
+        final int entry = pathSearchField[myLoc.x][myLoc.y];
+        final int code = entry & PATH_SEARCH_CODE_MASK;
+        if((entry >> PATH_SEARCH_ID_SHIFT) != pathSearchId || code == PATH_SEARCH_DEST_CODE) {
+            return -1;
+        }
+        final int dirIdx = code - 1;
+        final Direction d = MOVEMENT_DIRECTIONS[dirIdx];
+        if((terrainMap[myLoc.x + d.dx][myLoc.y + d.dy] & TERRAIN_IMPASSABLE_BITS) != 0) {
+            pathSearchDest = null;
+            isPathSearchRunning = false;
+            return -1;
+        }
+        return dirIdx;
+    }
+
+
+    // Footsteps whose pathing data has not been recorded yet, oldest first.
+    // The order matters because each footstep links to the ones recorded before it.
+    static final MapLocation[] deferredPathingDataLocs = new MapLocation[8];
+    static int numDeferredPathingDataLocs = 0;
+    static void deferPathingDataUpdate(MapLocation loc) {
+        if(numDeferredPathingDataLocs > 0
+            && loc.equals(deferredPathingDataLocs[numDeferredPathingDataLocs - 1])
+        ) {
+            return;
+        }
+        if(numDeferredPathingDataLocs == deferredPathingDataLocs.length) {
+            // Drop the oldest footstep; the trail gets a gap, but the newest footsteps matter most.
+            System.arraycopy(deferredPathingDataLocs, 1, deferredPathingDataLocs, 0, numDeferredPathingDataLocs - 1);
+            numDeferredPathingDataLocs--;
+        }
+        deferredPathingDataLocs[numDeferredPathingDataLocs] = loc;
+        numDeferredPathingDataLocs++;
+    }
+    static void updateDeferredPathingData(RobotController rc) throws GameActionException {
+        for(int k = 0; k < numDeferredPathingDataLocs; k++) {
+            updatePathingData(rc, deferredPathingDataLocs[k]);
+            deferredPathingDataLocs[k] = null;
+        }
+        numDeferredPathingDataLocs = 0;
+    }
+
+    static void updatePathingData(RobotController rc, MapLocation myLoc) throws GameActionException {
+        final int myLocPd = daMap[myLoc.x][myLoc.y];
+        int stepDirIndex = PATHING_NO_DIR_INDEX;
+        int numSteps = MY_INF;
+        if(myLocPd != 0) {
+            stepDirIndex = (myLocPd >> PATHING_STEP_DIR_SHIFT) & PATHING_STEP_DIR_MASK;
+            numSteps = myLocPd & PATHING_NUM_STEPS_MASK;
+        }
+        // Ties go to the last direction, the way the scan always broke them.
+        final int best = Neighbors.findMinNeighborLastTie(
+            daMap, myLoc.x, myLoc.y,
+            Neighbors.computeOnTheMapMask(myLoc.x, myLoc.y, rc.getMapWidth(), rc.getMapHeight()),
+            PATHING_NUM_STEPS_MASK, numSteps
+        );
+        if(best != -1) {
+            stepDirIndex = best & 0b111;
+            numSteps = 1 + (best >> 3);
+        }
+        daMap[myLoc.x][myLoc.y] = packPathingData(stepDirIndex, numSteps);
+    }
+
+    static void moveTowardSpawnLocUsingDaMap(RobotController rc) throws GameActionException {
+        if(rc.isMovementReady()) {
+            final MapLocation myLoc = myLocation;
+            final int best = Neighbors.findMinNeighbor(
+                daMap, myLoc.x, myLoc.y,
+                Neighbors.computeOnTheMapMask(myLoc.x, myLoc.y, rc.getMapWidth(), rc.getMapHeight()),
+                PATHING_NUM_STEPS_MASK, MY_INF
+            );
+            if(best != -1) {
+                final int bestDirIdx = best & 0b111;
+                final Direction bestDir = MOVEMENT_DIRECTIONS[bestDirIdx];
+                if((canMoveMask & (1 << bestDirIdx)) != 0) {
+                    moveAndUpdateMyVariables(rc, bestDir);
+                } else {
+                    // A robot or water is blocking the path!
+                    final MapLocation oneStepForward = myLoc.add(bestDir);
+                    final int bestPd = daMap[oneStepForward.x][oneStepForward.y];
+                    final MapLocation twoStepsForward = oneStepForward.add(getPathingStepDir(bestPd));
+                    hybridMove(rc, twoStepsForward);
+                }
+            } else {
+                System.out.println("NOT EXPECTED TO EVER OCCUR");
+            }
+        }
+    }
+
+    // The BFS distance fields are double buffers that are never cleared.  Each build takes a stamp smaller
+    // than any before it and stores (stamp << BFS_STAMP_SHIFT) | (1 + steps), so entries left over from
+    // earlier builds are told apart by their stamp, and compare greater than every entry of the current
+    // build, so findMinNeighbor never steps onto one.
+    static final int BFS_STAMP_SHIFT = 12; // 1 + steps is at most 60 * 60 < 1 << 12
+    static int lastBfsStamp = 1 << 18;
+
+    // Multi-source BFS from every ally spawn tile over tiles that terrainMap knows to be passable.
+    // It is the TASK_SPAWN_BFS background task, registered whenever the tiles known to be passable change.
+    // Exploring changes them nearly every turn, so unless we carry a flag, a build only starts
+    // SPAWN_BFS_MIN_REBUILD_ROUNDS after the one before it.
+    // spawnDistanceField is the last completed field and spawnBfsField the buffer the next build goes in.
+    static final int SPAWN_BFS_MIN_REBUILD_ROUNDS = 10;
+    static int[][] spawnDistanceField = null;
+    static int spawnDistanceFieldStamp = 0;
+    static int[][] spawnBfsField = null;
+    static int spawnBfsStamp = 0;
+    static boolean isSpawnBfsRunning = false;
+    static int[] spawnBfsQueue = null;
+    static int spawnBfsQueueHead = 0;
+    static int spawnBfsQueueTail = 0;
+    static int spawnBfsKnownPassableVersion = -1;
+    static int spawnBfsStartRound = -MY_INF;
+    static void startSpawnBfs(RobotController rc) {
+        if(spawnBfsField == null) {
+            spawnBfsField = new int[rc.getMapWidth()][rc.getMapHeight()];
+        }
+        if(spawnBfsQueue == null) {
+            spawnBfsQueue = new int[rc.getMapWidth() * rc.getMapHeight()];
+        }
+        lastBfsStamp--;
+        spawnBfsStamp = lastBfsStamp;
+        isSpawnBfsRunning = true;
+        spawnBfsQueueHead = 0;
+        spawnBfsQueueTail = 0;
+        spawnBfsKnownPassableVersion = knownPassableVersion;
+        spawnBfsStartRound = roundNumAtStartOfIteration;
+        final int source = (spawnBfsStamp << BFS_STAMP_SHIFT) | 1;
+        for(MapLocation ml : rc.getAllySpawnLocations()) {
+            spawnBfsField[ml.x][ml.y] = source;
+            spawnBfsQueue[spawnBfsQueueTail] = (ml.x << 8) | ml.y;
+            spawnBfsQueueTail++;
+        }
+    }
+    static boolean advanceSpawnDistanceField(RobotController rc) {
+        if(!isSpawnBfsRunning) {
+            if(spawnBfsKnownPassableVersion == knownPassableVersion) {
+                return false; // the completed field is up to date with what we know
+            }
+            if(roundNumAtStartOfIteration - spawnBfsStartRound < SPAWN_BFS_MIN_REBUILD_ROUNDS && !rc.hasFlag()) {
+                return true;
+            }
+            startSpawnBfs(rc);
+        }
+        final int mw = rc.getMapWidth();
+        final int mh = rc.getMapHeight();
+        final int[][] field = spawnBfsField;
+        final int stamp = spawnBfsStamp;
+        final int[] queue = spawnBfsQueue;
+        int head = spawnBfsQueueHead;
+        int tail = spawnBfsQueueTail;
+        while(head < tail && Clock.getBytecodesLeft() > BACKGROUND_TASK_MIN_BYTECODES_LEFT) {
+            final int packed = queue[head];
+            head++;
+            final int x = packed >> 8;
+            final int y = packed & 0b11111111;
+            final int nextDist = field[x][y] + 1;
+            for(int k = 0; k < MOVEMENT_DIRECTIONS.length; k++) {
+                final int nx = x + MOVEMENT_DIRECTIONS[k].dx;
+                final int ny = y + MOVEMENT_DIRECTIONS[k].dy;
+                if(nx >= 0 && ny >= 0 && nx < mw && ny < mh
+                    && (field[nx][ny] >> BFS_STAMP_SHIFT) != stamp
+                    && (terrainMap[nx][ny] & (TERRAIN_SENSED_BIT | TERRAIN_IMPASSABLE_BITS)) == TERRAIN_SENSED_BIT
+                ) {
+                    field[nx][ny] = nextDist;
+                    queue[tail] = (nx << 8) | ny;
+                    tail++;
+                }
+            }
+        }
+        spawnBfsQueueHead = head;
+        spawnBfsQueueTail = tail;
+        if(head >= tail) {
+            spawnBfsField = spawnDistanceField;
+            spawnDistanceField = field;
+            spawnDistanceFieldStamp = stamp;
+            isSpawnBfsRunning = false;
+            // Terrain learned while this field was being built needs another one.
+            return spawnBfsKnownPassableVersion != knownPassableVersion;
+        }
+        return true;
+    }
+
+    /**
+     * Steps down the gradient of spawnDistanceField.
+     * Returns false if the field cannot be used from here, so the caller can fall back on daMap.
+     */
+    static boolean moveTowardSpawnLocUsingSpawnDistanceField(RobotController rc) throws GameActionException {
+        if(!rc.isMovementReady() || spawnDistanceField == null) {
+            return false;
+        }
+        final MapLocation myLoc = myLocation;
+        final int myDist = spawnDistanceField[myLoc.x][myLoc.y];
+        if((myDist >> BFS_STAMP_SHIFT) != spawnDistanceFieldStamp) {
+            return false;
+        }
+        // canMoveMask only has bits for tiles that are on the map and passable.
+        final int best = Neighbors.findMinNeighbor(spawnDistanceField, myLoc.x, myLoc.y, canMoveMask, -1, myDist);
+        if(best == -1) {
+            return false;
+        }
+        moveAndUpdateMyVariables(rc, MOVEMENT_DIRECTIONS[best & 0b111]);
+        return true;
+    }
+
+    // Multi-source BFS toward the enemy flags we know of: the flag table entries seen within
+    // ENEMY_FLAG_MEMORY_MAX_AGE rounds or, if there are none, the predicted flag sites.
+    // It is the TASK_FLAG_BFS background task.  Like the path search, it counts every tile that terrainMap
+    // does not know to be impassable as passable, so the field reaches us before we have seen the way.
+    // The search stops once it reaches us, since every tile downhill from us is labeled by then.
+    // So that it is not rebuilt for every tile we sense, it is only rebuilt when its sources change,
+    // when following it leads into a tile we have since learned is impassable, or when we have left it.
+    // enemyFlagDistanceField is the last completed field and flagBfsField the buffer the next build goes in,
+    // stamped like the spawn fields.
+    static final int[] enemyFlagFieldSources = new int[GameConstants.NUMBER_FLAGS]; // packed (x << 8) | y
+    static int numEnemyFlagFieldSources = 0;
+    static long enemyFlagFieldSourcesKey = 0; // identifies the current sources, 0 for none
+    static int[][] enemyFlagDistanceField = null;
+    static int enemyFlagDistanceFieldStamp = 0;
+    static long enemyFlagDistanceFieldSourcesKey = 0;
+    static int enemyFlagDistanceFieldTerrainMapVersion = -1;
+    static boolean isEnemyFlagDistanceFieldPartial = false;
+    static boolean isEnemyFlagFieldRebuildWanted = false;
+    static int[][] flagBfsField = null;
+    static int flagBfsStamp = 0;
+    static boolean isFlagBfsRunning = false;
+    static int[] flagBfsQueue = null;
+    static int flagBfsQueueHead = 0;
+    static int flagBfsQueueTail = 0;
+    static long flagBfsSourcesKey = 0;
+    static int flagBfsTerrainMapVersion = -1;
+    static void updateEnemyFlagFieldSources() {
+        int n = 0;
+        long key = 0;
+        for(int idx = 0; idx < flagMemoryLength; idx++) {
+            if(roundNumAtStartOfIteration - flagMemoryWhenLast[idx] <= ENEMY_FLAG_MEMORY_MAX_AGE) {
+                enemyFlagFieldSources[n] = flagMemoryLocs[idx];
+                key = key * 65537 + flagMemoryLocs[idx] + 1;
+                n++;
+            }
+        }
+        if(n == 0) {
+            for(int k = 0; k < numPredictedEnemyFlagLocs; k++) {
+                final MapLocation ml = predictedEnemyFlagLocs[k];
+                enemyFlagFieldSources[n] = (ml.x << 8) | ml.y;
+                key = key * 65537 + enemyFlagFieldSources[n] + 1;
+                n++;
+            }
+        }
+        numEnemyFlagFieldSources = n;
+        if(key != enemyFlagFieldSourcesKey) {
+            enemyFlagFieldSourcesKey = key;
+            if(n > 0) {
+                registerBackgroundTask(TASK_FLAG_BFS);
+            }
+        }
+    }
+    static void requestEnemyFlagFieldRebuild() {
+        if(!isFlagBfsRunning) { // a build in progress already uses the terrain and location we have now
+            isEnemyFlagFieldRebuildWanted = true;
+            registerBackgroundTask(TASK_FLAG_BFS);
+        }
+    }
+    static void startFlagBfs(RobotController rc) {
+        if(flagBfsField == null) {
+            flagBfsField = new int[rc.getMapWidth()][rc.getMapHeight()];
+        }
+        if(flagBfsQueue == null) {
+            flagBfsQueue = new int[rc.getMapWidth() * rc.getMapHeight()];
+        }
+        lastBfsStamp--;
+        flagBfsStamp = lastBfsStamp;
+        isFlagBfsRunning = true;
+        flagBfsQueueHead = 0;
+        flagBfsQueueTail = 0;
+        flagBfsSourcesKey = enemyFlagFieldSourcesKey;
+        flagBfsTerrainMapVersion = terrainMapVersion;
+        isEnemyFlagFieldRebuildWanted = false;
+        final int source = (flagBfsStamp << BFS_STAMP_SHIFT) | 1;
+        for(int k = 0; k < numEnemyFlagFieldSources; k++) {
+            final int packed = enemyFlagFieldSources[k];
+            flagBfsField[packed >> 8][packed & 0b11111111] = source;
+            flagBfsQueue[flagBfsQueueTail] = packed;
+            flagBfsQueueTail++;
+        }
+    }
+    static boolean advanceEnemyFlagDistanceField(RobotController rc) {
+        if(!isFlagBfsRunning || flagBfsSourcesKey != enemyFlagFieldSourcesKey) {
+            if(numEnemyFlagFieldSources == 0
+                || (enemyFlagDistanceFieldSourcesKey == enemyFlagFieldSourcesKey && !isEnemyFlagFieldRebuildWanted)
+            ) {
+                isFlagBfsRunning = false;
+                return false; // the completed field is still good
+            }
+            startFlagBfs(rc);
+        }
+        final int mw = rc.getMapWidth();
+        final int mh = rc.getMapHeight();
+        final int[][] field = flagBfsField;
+        final int stamp = flagBfsStamp;
+        final int[] queue = flagBfsQueue;
+        final int[] myColumn = field[myLocation.x];
+        final int myY = myLocation.y;
+        int head = flagBfsQueueHead;
+        int tail = flagBfsQueueTail;
+        while(head < tail
+            && (myColumn[myY] >> BFS_STAMP_SHIFT) != stamp
+            && Clock.getBytecodesLeft() > BACKGROUND_TASK_MIN_BYTECODES_LEFT
+        ) {
+            final int packed = queue[head];
+            head++;
+            final int x = packed >> 8;
+            final int y = packed & 0b11111111;
+            final int nextDist = field[x][y] + 1;
+            for(int k = 0; k < MOVEMENT_DIRECTIONS.length; k++) {
+                final int nx = x + MOVEMENT_DIRECTIONS[k].dx;
+                final int ny = y + MOVEMENT_DIRECTIONS[k].dy;
+                if(nx >= 0 && ny >= 0 && nx < mw && ny < mh
+                    && (field[nx][ny] >> BFS_STAMP_SHIFT) != stamp
+                    && (terrainMap[nx][ny] & TERRAIN_IMPASSABLE_BITS) == 0
+                ) {
+                    field[nx][ny] = nextDist;
+                    queue[tail] = (nx << 8) | ny;
+                    tail++;
+                }
+            }
+        }
+        flagBfsQueueHead = head;
+        flagBfsQueueTail = tail;
+        if(head >= tail || (myColumn[myY] >> BFS_STAMP_SHIFT) == stamp) {
+            flagBfsField = enemyFlagDistanceField;
+            enemyFlagDistanceField = field;
+            enemyFlagDistanceFieldStamp = stamp;
+            enemyFlagDistanceFieldSourcesKey = flagBfsSourcesKey;
+            enemyFlagDistanceFieldTerrainMapVersion = flagBfsTerrainMapVersion;
+            isEnemyFlagDistanceFieldPartial = head < tail;
+            isFlagBfsRunning = false;
+            // The sources may have changed while this field was being built.
+            return flagBfsSourcesKey != enemyFlagFieldSourcesKey || isEnemyFlagFieldRebuildWanted;
+        }
+        return true;
+    }
+
+    /**
+     * Steps down the gradient of enemyFlagDistanceField, if it was built for the flags we know of now.
+     * Returns false if the field cannot be used from here, so the caller can fall back on hybridMove.
+     */
+    static boolean moveTowardEnemyFlagUsingDistanceField(RobotController rc) throws GameActionException {
+        if(!rc.isMovementReady()
+            || enemyFlagDistanceField == null
+            || enemyFlagDistanceFieldSourcesKey != enemyFlagFieldSourcesKey
+        ) {
+            return false;
+        }
+        final MapLocation myLoc = myLocation;
+        final int myDist = enemyFlagDistanceField[myLoc.x][myLoc.y];
+        if((myDist >> BFS_STAMP_SHIFT) != enemyFlagDistanceFieldStamp) {
+            // Off the part of the field that was built, or cut off from the flags by what we knew then.
+            if(isEnemyFlagDistanceFieldPartial || enemyFlagDistanceFieldTerrainMapVersion != terrainMapVersion) {
+                requestEnemyFlagFieldRebuild();
+            }
+            return false;
+        }
+        if(myDist == ((enemyFlagDistanceFieldStamp << BFS_STAMP_SHIFT) | 1)) {
+            return false;
+        }
+        final int best = Neighbors.findMinNeighbor(enemyFlagDistanceField, myLoc.x, myLoc.y, canMoveMask, -1, myDist);
+        if(best != -1) {
+            moveAndUpdateMyVariables(rc, MOVEMENT_DIRECTIONS[best & 0b111]);
+            return true;
+        }
+        // Nothing downhill that we can move to.  If that is terrain rather than robots, the field is out of date.
+        if(enemyFlagDistanceFieldTerrainMapVersion != terrainMapVersion) {
+            boolean isDownhillPassable = false;
+            for(int k = 0; k < MOVEMENT_DIRECTIONS.length && !isDownhillPassable; k++) {
+                final int nx = myLoc.x + MOVEMENT_DIRECTIONS[k].dx;
+                final int ny = myLoc.y + MOVEMENT_DIRECTIONS[k].dy;
+                if(nx >= 0 && ny >= 0 && nx < terrainMap.length && ny < terrainMap[0].length) {
+                    final int d = enemyFlagDistanceField[nx][ny];
+                    isDownhillPassable = d != 0 && d < myDist && (terrainMap[nx][ny] & TERRAIN_IMPASSABLE_BITS) == 0;
+                }
+            }
+            if(!isDownhillPassable) {
+                requestEnemyFlagFieldRebuild();
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,267 @@
+package waffle;
+
+// GENERATED by scripts/GenerateScoringTables.java.  Do not edit by hand; change the generator and rerun it.
+final class ScoringTables {
+
+    static final int VISION_GRID_RADIUS = 4;
+    static final int VISION_GRID_SIDE = 9;
+
+    static final int NEAR_GRID_RADIUS = 3;
+    static final int NEAR_GRID_SIDE = 7;
+    /**
+     * Bit (dx + NEAR_GRID_RADIUS) * NEAR_GRID_SIDE + (dy + NEAR_GRID_RADIUS) of a near grid bitboard is the tile at
+     * offset (dx, dy) from its center.  Entry b holds the bits within attack and heal radius of bit b, not b itself.
+     */
+    static final long[] NEAR_ACTION_MASKS = {
+        0x4186L, 0x838dL, 0x1071bL, 0x20e36L,
+        0x41c6cL, 0x83858L, 0x103030L, 0x20c303L,
+        0x41c687L, 0x838d8eL, 0x1071b1cL, 0x20e3638L,
+        0x41c2c70L, 0x8181860L, 0x10618181L, 0x20e34382L,
+        0x41c6c704L, 0x838d8e08L, 0x1071b1c10L, 0x20e163820L,
+        0x40c0c3040L, 0x830c0c080L, 0x1071a1c100L, 0x20e3638200L,
+        0x41c6c70400L, 0x838d8e0800L, 0x1070b1c1000L, 0x20606182000L,
+        0x41860604000L, 0x838d0e08000L, 0x1071b1c10000L, 0x20e363820000L,
+        0x41c6c7040000L, 0x83858e080000L, 0x103030c100000L, 0xc3030200000L,
+        0x1c6870400000L, 0x38d8e0800000L, 0x71b1c1000000L, 0xe36382000000L,
+        0x1c2c704000000L, 0x1818608000000L, 0x181810000000L, 0x343820000000L,
+        0x6c7040000000L, 0xd8e080000000L, 0x1b1c100000000L, 0x1638200000000L,
+        0xc30400000000L,
+    };
+    static final int BIT_INDEX_MODULUS = 67;
+    /** The powers of two below 2^64 are distinct mod BIT_INDEX_MODULUS; entry (2^b mod BIT_INDEX_MODULUS) is b. */
+    static final int[] BIT_INDEX = {
+        0, 0, 1, 39, 2, 15, 40, 23, 3, 12, 16, 59, 41, 19, 24, 54,
+        4, 0, 13, 10, 17, 62, 60, 28, 42, 30, 20, 51, 25, 44, 55, 47,
+        5, 32, 0, 38, 14, 22, 11, 58, 18, 53, 63, 9, 61, 27, 29, 50,
+        43, 46, 31, 37, 21, 57, 52, 8, 26, 49, 45, 36, 56, 7, 48, 35,
+        6, 34, 33,
+    };
+
+    static final int THREAT_GRID_RADIUS = 2;
+    static final int THREAT_GRID_SIDE = 5;
+    static final int THREAT_GRID_CENTER_CELL = 12;
+    /** Cell (dx, dy) of the threat grid is (dx + THREAT_GRID_RADIUS) * THREAT_GRID_SIDE + (dy + THREAT_GRID_RADIUS); this is the step to the cell in direction k. */
+    static final int[] THREAT_GRID_DIR_STEPS = {
+        1, 6, 5, 4, -1, -6, -5, -4,
+    };
+
+    /**
+     * The tables below are indexed by the vision grid cell of an enemy at offset (ex, ey) from the
+     * threat grid center, which is also the vision grid center.
+     * For REACH_COUNTS, byte k is 1 if the enemy could attack the tile next to the center in direction k.
+     * Summing these over the enemies counts the attackers of all eight tiles at once.
+     */
+    static final long[] REACH_COUNTS = {
+        0x0L, 0x0L, 0x0L, 0x0L,
+        0x0L, 0x0L, 0x0L, 0x0L,
+        0x0L, 0x0L, 0x0L, 0x0L,
+        0x10000000000L, 0x1000000000000L, 0x100000000000000L, 0x0L,
+        0x0L, 0x0L, 0x0L, 0x0L,
+        0x10000000000L, 0x1010100000000L, 0x101010000000000L, 0x101000000000001L,
+        0x100000000000000L, 0x0L, 0x0L, 0x0L,
+        0x10000000000L, 0x1010100000000L, 0x101010101000000L, 0x101010100010001L,
+        0x101010000000101L, 0x101000000000001L, 0x100000000000000L, 0x0L,
+        0x0L, 0x100000000L, 0x10101000000L, 0x1010101010001L,
+        0x101010101010101L, 0x101000100010101L, 0x100000000000101L, 0x1L,
+        0x0L, 0x0L, 0x1000000L, 0x101010000L,
+        0x10101010100L, 0x1000101010101L, 0x100000001010101L, 0x10101L,
+        0x100L, 0x0L, 0x0L, 0x0L,
+        0x1000000L, 0x101010000L, 0x1010100L, 0x10101L,
+        0x100L, 0x0L, 0x0L, 0x0L,
+        0x0L, 0x0L, 0x1000000L, 0x10000L,
+        0x100L, 0x0L, 0x0L, 0x0L,
+        0x0L, 0x0L, 0x0L, 0x0L,
+        0x0L, 0x0L, 0x0L, 0x0L,
+        0x0L,
+    };
+
+    static final int RECIPROCAL_SHIFT = 8;
+    static final int NUM_PROXIMITY_LANES = 7;
+    /**
+     * For PROXIMITY_j, 16 bit lane i holds (1 << RECIPROCAL_SHIFT) / distanceSquared from cell 4 * j + i to the
+     * enemy, rounded, or 4096 if the enemy stands on it.  The lanes cannot overflow for any number of
+     * enemies we can see, since only one of them can stand on a given cell.
+     */
+    static final long[] PROXIMITY_0 = {
+        0x9000d00140020L, 0xd001400200033L, 0x14002000330040L, 0x20003300400033L,
+        0x33004000330020L, 0x40003300200014L, 0x3300200014000dL, 0x200014000d0009L,
+        0x14000d00090006L, 0xa000f001a0033L, 0xf001a00330080L, 0x1a003300800100L,
+        0x33008001000080L, 0x80010000800033L, 0x10000800033001aL, 0x800033001a000fL,
+        0x33001a000f000aL, 0x1a000f000a0007L, 0xa0010001c0040L, 0x10001c00400100L,
+        0x1c004001001000L, 0x40010010000100L, 0x100100001000040L, 0x100001000040001cL,
+        0x1000040001c0010L, 0x40001c0010000aL, 0x1c0010000a0007L, 0xa000f001a0033L,
+        0xf001a00330080L, 0x1a003300800100L, 0x33008001000080L, 0x80010000800033L,
+        0x10000800033001aL, 0x800033001a000fL, 0x33001a000f000aL, 0x1a000f000a0007L,
+        0x9000d00140020L, 0xd001400200033L, 0x14002000330040L, 0x20003300400033L,
+        0x33004000330020L, 0x40003300200014L, 0x3300200014000dL, 0x200014000d0009L,
+        0x14000d00090006L, 0x8000a000e0014L, 0xa000e0014001aL, 0xe0014001a001cL,
+        0x14001a001c001aL, 0x1a001c001a0014L, 0x1c001a0014000eL, 0x1a0014000e000aL,
+        0x14000e000a0008L, 0xe000a00080006L, 0x60008000a000dL, 0x8000a000d000fL,
+        0xa000d000f0010L, 0xd000f0010000fL, 0xf0010000f000dL, 0x10000f000d000aL,
+        0xf000d000a0008L, 0xd000a00080006L, 0xa000800060005L, 0x5000600080009L,
+        0x600080009000aL, 0x80009000a000aL, 0x9000a000a000aL, 0xa000a000a0009L,
+        0xa000a00090008L, 0xa000900080006L, 0x9000800060005L, 0x8000600050004L,
+        0x4000500060006L, 0x5000600060007L, 0x6000600070007L, 0x6000700070007L,
+        0x7000700070006L, 0x7000700060006L, 0x7000600060005L, 0x6000600050004L,
+        0x6000500040004L,
+    };
+    static final long[] PROXIMITY_1 = {
+        0xa000e00140006L, 0xe0014001a0009L, 0x14001a001c000dL, 0x1a001c001a0014L,
+        0x1c001a00140020L, 0x1a0014000e0033L, 0x14000e000a0040L, 0xe000a00080033L,
+        0xa000800060020L, 0xd001400200007L, 0x1400200033000aL, 0x2000330040000fL,
+        0x3300400033001aL, 0x40003300200033L, 0x33002000140080L, 0x200014000d0100L,
+        0x14000d00090080L, 0xd000900060033L, 0xf001a00330007L, 0x1a00330080000aL,
+        0x33008001000010L, 0x8001000080001cL, 0x100008000330040L, 0x800033001a0100L,
+        0x33001a000f1000L, 0x1a000f000a0100L, 0xf000a00070040L, 0x10001c00400007L,
+        0x1c00400100000aL, 0x4001001000000fL, 0x10010000100001aL, 0x1000010000400033L,
+        0x1000040001c0080L, 0x40001c00100100L, 0x1c0010000a0080L, 0x10000a00070033L,
+        0xf001a00330006L, 0x1a003300800009L, 0x3300800100000dL, 0x80010000800014L,
+        0x100008000330020L, 0x800033001a0033L, 0x33001a000f0040L, 0x1a000f000a0033L,
+        0xf000a00070020L, 0xd001400200006L, 0x14002000330008L, 0x2000330040000aL,
+        0x3300400033000eL, 0x40003300200014L, 0x3300200014001aL, 0x200014000d001cL,
+        0x14000d0009001aL, 0xd000900060014L, 0xa000e00140005L, 0xe0014001a0006L,
+        0x14001a001c0008L, 0x1a001c001a000aL, 0x1c001a0014000dL, 0x1a0014000e000fL,
+        0x14000e000a0010L, 0xe000a0008000fL, 0xa00080006000dL, 0x8000a000d0004L,
+        0xa000d000f0005L, 0xd000f00100006L, 0xf0010000f0008L, 0x10000f000d0009L,
+        0xf000d000a000aL, 0xd000a0008000aL, 0xa00080006000aL, 0x8000600050009L,
+        0x6000800090004L, 0x80009000a0004L, 0x9000a000a0005L, 0xa000a000a0006L,
+        0xa000a00090006L, 0xa000900080007L, 0x9000800060007L, 0x8000600050007L,
+        0x6000500040006L,
+    };
+    static final long[] PROXIMITY_2 = {
+        0xa000d00060008L, 0xd000f0008000aL, 0xf0010000a000eL, 0x10000f000e0014L,
+        0xf000d0014001aL, 0xd000a001a001cL, 0xa0008001c001aL, 0x80006001a0014L,
+        0x600050014000eL, 0xe001400060009L, 0x14001a0009000dL, 0x1a001c000d0014L,
+        0x1c001a00140020L, 0x1a001400200033L, 0x14000e00330040L, 0xe000a00400033L,
+        0xa000800330020L, 0x8000600200014L, 0x1400200007000aL, 0x200033000a000fL,
+        0x330040000f001aL, 0x400033001a0033L, 0x33002000330080L, 0x20001400800100L,
+        0x14000d01000080L, 0xd000900800033L, 0x900060033001aL, 0x1a00330007000aL,
+        0x330080000a0010L, 0x8001000010001cL, 0x1000080001c0040L, 0x80003300400100L,
+        0x33001a01001000L, 0x1a000f10000100L, 0xf000a01000040L, 0xa00070040001cL,
+        0x1c00400007000aL, 0x400100000a000fL, 0x1001000000f001aL, 0x10000100001a0033L,
+        0x100004000330080L, 0x40001c00800100L, 0x1c001001000080L, 0x10000a00800033L,
+        0xa00070033001aL, 0x1a003300060009L, 0x3300800009000dL, 0x800100000d0014L,
+        0x100008000140020L, 0x80003300200033L, 0x33001a00330040L, 0x1a000f00400033L,
+        0xf000a00330020L, 0xa000700200014L, 0x14002000060008L, 0x2000330008000aL,
+        0x330040000a000eL, 0x400033000e0014L, 0x3300200014001aL, 0x200014001a001cL,
+        0x14000d001c001aL, 0xd0009001a0014L, 0x900060014000eL, 0xe001400050006L,
+        0x14001a00060008L, 0x1a001c0008000aL, 0x1c001a000a000dL, 0x1a0014000d000fL,
+        0x14000e000f0010L, 0xe000a0010000fL, 0xa0008000f000dL, 0x80006000d000aL,
+        0xa000d00040005L, 0xd000f00050006L, 0xf001000060008L, 0x10000f00080009L,
+        0xf000d0009000aL, 0xd000a000a000aL, 0xa0008000a000aL, 0x80006000a0009L,
+        0x6000500090008L,
+    };
+    static final long[] PROXIMITY_3 = {
+        0x9000500060008L, 0xa00060008000aL, 0xa0008000a000dL, 0xa000a000d000fL,
+        0x9000d000f0010L, 0x8000f0010000fL, 0x60010000f000dL, 0x5000f000d000aL,
+        0x4000d000a0008L, 0xd00060008000aL, 0xf0008000a000eL, 0x10000a000e0014L,
+        0xf000e0014001aL, 0xd0014001a001cL, 0xa001a001c001aL, 0x8001c001a0014L,
+        0x6001a0014000eL, 0x50014000e000aL, 0x1400060009000dL, 0x1a0009000d0014L,
+        0x1c000d00140020L, 0x1a001400200033L, 0x14002000330040L, 0xe003300400033L,
+        0xa004000330020L, 0x8003300200014L, 0x600200014000dL, 0x200007000a000fL,
+        0x33000a000f001aL, 0x40000f001a0033L, 0x33001a00330080L, 0x20003300800100L,
+        0x14008001000080L, 0xd010000800033L, 0x900800033001aL, 0x60033001a000fL,
+        0x330007000a0010L, 0x80000a0010001cL, 0x1000010001c0040L, 0x80001c00400100L,
+        0x33004001001000L, 0x1a010010000100L, 0xf100001000040L, 0xa01000040001cL,
+        0x70040001c0010L, 0x400007000a000fL, 0x100000a000f001aL, 0x1000000f001a0033L,
+        0x100001a00330080L, 0x40003300800100L, 0x1c008001000080L, 0x10010000800033L,
+        0xa00800033001aL, 0x70033001a000fL, 0x3300060009000dL, 0x800009000d0014L,
+        0x100000d00140020L, 0x80001400200033L, 0x33002000330040L, 0x1a003300400033L,
+        0xf004000330020L, 0xa003300200014L, 0x700200014000dL, 0x2000060008000aL,
+        0x330008000a000eL, 0x40000a000e0014L, 0x33000e0014001aL, 0x200014001a001cL,
+        0x14001a001c001aL, 0xd001c001a0014L, 0x9001a0014000eL, 0x60014000e000aL,
+        0x14000500060008L, 0x1a00060008000aL, 0x1c0008000a000dL, 0x1a000a000d000fL,
+        0x14000d000f0010L, 0xe000f0010000fL, 0xa0010000f000dL, 0x8000f000d000aL,
+        0x6000d000a0008L,
+    };
+    static final long[] PROXIMITY_4 = {
+        0x4000500060008L, 0x5000600080009L, 0x600080009000aL, 0x80009000a000aL,
+        0x9000a000a000aL, 0xa000a000a0009L, 0xa000a00090008L, 0xa000900080006L,
+        0x9000800060005L, 0x500060008000aL, 0x60008000a000dL, 0x8000a000d000fL,
+        0xa000d000f0010L, 0xd000f0010000fL, 0xf0010000f000dL, 0x10000f000d000aL,
+        0xf000d000a0008L, 0xd000a00080006L, 0x60008000a000eL, 0x8000a000e0014L,
+        0xa000e0014001aL, 0xe0014001a001cL, 0x14001a001c001aL, 0x1a001c001a0014L,
+        0x1c001a0014000eL, 0x1a0014000e000aL, 0x14000e000a0008L, 0x60009000d0014L,
+        0x9000d00140020L, 0xd001400200033L, 0x14002000330040L, 0x20003300400033L,
+        0x33004000330020L, 0x40003300200014L, 0x3300200014000dL, 0x200014000d0009L,
+        0x7000a000f001aL, 0xa000f001a0033L, 0xf001a00330080L, 0x1a003300800100L,
+        0x33008001000080L, 0x80010000800033L, 0x10000800033001aL, 0x800033001a000fL,
+        0x33001a000f000aL, 0x7000a0010001cL, 0xa0010001c0040L, 0x10001c00400100L,
+        0x1c004001001000L, 0x40010010000100L, 0x100100001000040L, 0x100001000040001cL,
+        0x1000040001c0010L, 0x40001c0010000aL, 0x7000a000f001aL, 0xa000f001a0033L,
+        0xf001a00330080L, 0x1a003300800100L, 0x33008001000080L, 0x80010000800033L,
+        0x10000800033001aL, 0x800033001a000fL, 0x33001a000f000aL, 0x60009000d0014L,
+        0x9000d00140020L, 0xd001400200033L, 0x14002000330040L, 0x20003300400033L,
+        0x33004000330020L, 0x40003300200014L, 0x3300200014000dL, 0x200014000d0009L,
+        0x60008000a000eL, 0x8000a000e0014L, 0xa000e0014001aL, 0xe0014001a001cL,
+        0x14001a001c001aL, 0x1a001c001a0014L, 0x1c001a0014000eL, 0x1a0014000e000aL,
+        0x14000e000a0008L,
+    };
+    static final long[] PROXIMITY_5 = {
+        0x4000500060006L, 0x5000600060007L, 0x6000600070007L, 0x6000700070007L,
+        0x7000700070006L, 0x7000700060006L, 0x7000600060005L, 0x6000600050004L,
+        0x6000500040004L, 0x5000600080009L, 0x600080009000aL, 0x80009000a000aL,
+        0x9000a000a000aL, 0xa000a000a0009L, 0xa000a00090008L, 0xa000900080006L,
+        0x9000800060005L, 0x8000600050004L, 0x60008000a000dL, 0x8000a000d000fL,
+        0xa000d000f0010L, 0xd000f0010000fL, 0xf0010000f000dL, 0x10000f000d000aL,
+        0xf000d000a0008L, 0xd000a00080006L, 0xa000800060005L, 0x8000a000e0014L,
+        0xa000e0014001aL, 0xe0014001a001cL, 0x14001a001c001aL, 0x1a001c001a0014L,
+        0x1c001a0014000eL, 0x1a0014000e000aL, 0x14000e000a0008L, 0xe000a00080006L,
+        0x9000d00140020L, 0xd001400200033L, 0x14002000330040L, 0x20003300400033L,
+        0x33004000330020L, 0x40003300200014L, 0x3300200014000dL, 0x200014000d0009L,
+        0x14000d00090006L, 0xa000f001a0033L, 0xf001a00330080L, 0x1a003300800100L,
+        0x33008001000080L, 0x80010000800033L, 0x10000800033001aL, 0x800033001a000fL,
+        0x33001a000f000aL, 0x1a000f000a0007L, 0xa0010001c0040L, 0x10001c00400100L,
+        0x1c004001001000L, 0x40010010000100L, 0x100100001000040L, 0x100001000040001cL,
+        0x1000040001c0010L, 0x40001c0010000aL, 0x1c0010000a0007L, 0xa000f001a0033L,
+        0xf001a00330080L, 0x1a003300800100L, 0x33008001000080L, 0x80010000800033L,
+        0x10000800033001aL, 0x800033001a000fL, 0x33001a000f000aL, 0x1a000f000a0007L,
+        0x9000d00140020L, 0xd001400200033L, 0x14002000330040L, 0x20003300400033L,
+        0x33004000330020L, 0x40003300200014L, 0x3300200014000dL, 0x200014000d0009L,
+        0x14000d00090006L,
+    };
+    static final long[] PROXIMITY_6 = {
+        0x4L, 0x4L, 0x5L, 0x6L,
+        0x6L, 0x7L, 0x7L, 0x7L,
+        0x6L, 0x4L, 0x5L, 0x6L,
+        0x8L, 0x9L, 0xaL, 0xaL,
+        0xaL, 0x9L, 0x5L, 0x6L,
+        0x8L, 0xaL, 0xdL, 0xfL,
+        0x10L, 0xfL, 0xdL, 0x6L,
+        0x8L, 0xaL, 0xeL, 0x14L,
+        0x1aL, 0x1cL, 0x1aL, 0x14L,
+        0x6L, 0x9L, 0xdL, 0x14L,
+        0x20L, 0x33L, 0x40L, 0x33L,
+        0x20L, 0x7L, 0xaL, 0xfL,
+        0x1aL, 0x33L, 0x80L, 0x100L,
+        0x80L, 0x33L, 0x7L, 0xaL,
+        0x10L, 0x1cL, 0x40L, 0x100L,
+        0x1000L, 0x100L, 0x40L, 0x7L,
+        0xaL, 0xfL, 0x1aL, 0x33L,
+        0x80L, 0x100L, 0x80L, 0x33L,
+        0x6L, 0x9L, 0xdL, 0x14L,
+        0x20L, 0x33L, 0x40L, 0x33L,
+        0x20L,
+    };
+
+    static final int SCALAR_SHIFT = 12;
+    static final int SCALAR_MAX_EXPONENT = 24;
+    /** 1.2^e in fixed point with SCALAR_SHIFT fraction bits, at index e + SCALAR_MAX_EXPONENT. */
+    static final int[] COMBAT_NUMBERS_SCALAR = {
+        52, 62, 74, 89, 107, 128, 154, 185, 222, 266,
+        319, 383, 459, 551, 662, 794, 953, 1143, 1372, 1646,
+        1975, 2370, 2844, 3413, 4096, 4915, 5898, 7078, 8493, 10192,
+        12231, 14677, 17612, 21134, 25361, 30434, 36520, 43824, 52589, 63107,
+        75729, 90874, 109049, 130859, 157031, 188437, 226124, 271349, 325619,
+    };
+
+    /** 1.2^e in fixed point, with e clamped to [-SCALAR_MAX_EXPONENT, SCALAR_MAX_EXPONENT]. */
+    static int combatNumbersScalar(int e) {
+        if(e > SCALAR_MAX_EXPONENT) {
+            e = SCALAR_MAX_EXPONENT;
+        } else if(e < -SCALAR_MAX_EXPONENT) {
+            e = -SCALAR_MAX_EXPONENT;
+        }
+        return COMBAT_NUMBERS_SCALAR[e + SCALAR_MAX_EXPONENT];
+    }
+}